@@ -0,0 +1,144 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package frc.robot.subsystems.drive;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.util.Units;
+import frc.robot.util.DoubleRingBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures one robot cycle of the odometry pipeline: samples handed over in the odometry queues,
+ * drained and converted by the {@link ModuleOdometryReader} of {@link ModuleIOTalonFX}, turned into
+ * module positions by {@link Module#toDrivePositionsMeters}, and integrated into the pose estimator
+ * through an {@link OdometryIntegrator} as in {@link Drive#periodic()}.
+ *
+ * <p>Only the parts of the drive code that need no HAL, Phoenix or AdvantageKit runtime are used,
+ * so it runs on a desktop JVM without native libraries. Run with {@code ./gradlew jmh}; the GC
+ * profiler reports the allocation rate next to the time per cycle.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OdometryPipelineBenchmark {
+  private static final double PERIOD_SECS = 1.0 / 250.0;
+  private static final double WHEEL_RADIUS_METERS = Units.inchesToMeters(2.0);
+
+  /** Number of odometry samples the thread delivers per robot cycle. */
+  @Param({"1", "5", "12"})
+  public int samplesPerCycle;
+
+  private final DoubleRingBuffer[] timestampQueues = new DoubleRingBuffer[4];
+  private final DoubleRingBuffer[] drivePositionQueues = new DoubleRingBuffer[4];
+  private final DoubleRingBuffer[] turnPositionQueues = new DoubleRingBuffer[4];
+  private final ModuleOdometryReader[] odometryReaders = new ModuleOdometryReader[4];
+  private final ModuleIO.ModuleIOInputs[] moduleInputs = new ModuleIO.ModuleIOInputs[4];
+
+  private PrimitiveSwervePoseEstimator poseEstimator;
+  private OdometryIntegrator integrator;
+  private OdometryIntegrator.SampleConsumer consumer;
+  private final double[][] drivePositionsMeters =
+      new double[4][PhoenixOdometryThread.QUEUE_CAPACITY];
+  private final double[][] moduleTurnPositionsRad = new double[4][];
+  private final double[][] moduleTimestamps = new double[4][];
+  private final double[] gyroTimestamps = new double[0];
+  private final double[] gyroYawsRad = new double[0];
+  private double time;
+  private double driveRotations;
+  private double turnRotations;
+
+  /** Creates the queues and the estimator. */
+  @Setup
+  public void setup() {
+    for (int i = 0; i < 4; i++) {
+      timestampQueues[i] = new DoubleRingBuffer(PhoenixOdometryThread.QUEUE_CAPACITY);
+      drivePositionQueues[i] = new DoubleRingBuffer(PhoenixOdometryThread.QUEUE_CAPACITY);
+      turnPositionQueues[i] = new DoubleRingBuffer(PhoenixOdometryThread.QUEUE_CAPACITY);
+      odometryReaders[i] =
+          new ModuleOdometryReader(
+              new ModuleIO.OdometryQueues(
+                  timestampQueues[i], drivePositionQueues[i], turnPositionQueues[i]));
+      moduleInputs[i] = new ModuleIO.ModuleIOInputs();
+    }
+    Translation2d[] moduleTranslations = {
+      new Translation2d(0.3, 0.3),
+      new Translation2d(0.3, -0.3),
+      new Translation2d(-0.3, 0.3),
+      new Translation2d(-0.3, -0.3)
+    };
+    SwerveModulePosition[] initialPositions = new SwerveModulePosition[4];
+    for (int i = 0; i < 4; i++) {
+      initialPositions[i] = new SwerveModulePosition();
+    }
+    poseEstimator =
+        new PrimitiveSwervePoseEstimator(
+            moduleTranslations, Rotation2d.kZero, initialPositions, Pose2d.kZero);
+    integrator = new OdometryIntegrator(moduleTranslations);
+    consumer =
+        (timestamp, yawRad, distancesMeters, moduleCos, moduleSin) ->
+            poseEstimator.updateWithTime(
+                timestamp, yawRad, distancesMeters, moduleCos, moduleSin);
+    time = 0.0;
+    driveRotations = 0.0;
+    turnRotations = 0.0;
+  }
+
+  /** Runs one robot cycle and returns the resulting pose. */
+  @Benchmark
+  public Pose2d cycle() {
+    // Odometry thread: offer one batch per sample
+    for (int sample = 0; sample < samplesPerCycle; sample++) {
+      time += PERIOD_SECS;
+      driveRotations += 0.01;
+      turnRotations += 0.0005;
+      for (int i = 0; i < 4; i++) {
+        timestampQueues[i].offer(time);
+        drivePositionQueues[i].offer(driveRotations);
+        turnPositionQueues[i].offer(turnRotations);
+      }
+    }
+
+    // Module IO and Module.periodic()
+    int cycleSampleCount = Integer.MAX_VALUE;
+    for (int i = 0; i < 4; i++) {
+      timestampQueues[i].snapshot();
+      drivePositionQueues[i].snapshot();
+      turnPositionQueues[i].snapshot();
+      ModuleIO.ModuleIOInputs inputs = moduleInputs[i];
+      odometryReaders[i].read(inputs);
+      drivePositionsMeters[i] =
+          Module.toDrivePositionsMeters(inputs, WHEEL_RADIUS_METERS, drivePositionsMeters[i]);
+      moduleTurnPositionsRad[i] = inputs.odometryTurnPositions;
+      moduleTimestamps[i] = inputs.odometryTimestamps;
+      cycleSampleCount = Math.min(cycleSampleCount, inputs.odometryTimestamps.length);
+    }
+
+    // Drive.periodic(), using the module deltas for the yaw as there is no gyro
+    integrator.integrate(
+        moduleTimestamps,
+        cycleSampleCount,
+        drivePositionsMeters,
+        moduleTurnPositionsRad,
+        false,
+        gyroTimestamps,
+        gyroYawsRad,
+        consumer);
+    return poseEstimator.getEstimatedPosition();
+  }
+}
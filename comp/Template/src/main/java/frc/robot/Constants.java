@@ -19,6 +19,9 @@ public final class Constants {
     public static final Mode simMode = Mode.SIM;
     public static final Mode currentMode = RobotBase.isReal() ? Mode.REAL : simMode;
 
+    /** Whether to time the stages of subsystem periodic methods (see StageProfiler). */
+    public static final boolean profileStages = false;
+
     public static enum Mode {
         /** Running on a real robot. */
         REAL,
@@ -0,0 +1,173 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package frc.robot;
+
+import com.pathplanner.lib.auto.AutoBuilder;
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Runs the robot code in simulation without the GUI or the 20 ms pacing of {@link Robot}, so
+ * autonomous routines can be evaluated as fast as the CPU allows.
+ *
+ * <p>The FPGA clock is paused and stepped by one loop period at a time, and each step runs the
+ * {@link CommandScheduler} just like the periodic loop of {@link Robot}. Everything that reads the
+ * FPGA clock, including the drivetrain, the module sims and PathPlanner, therefore sees the same
+ * timing as in a paced simulation. The robot code is created once per process, since PathPlanner
+ * can only be configured once, and each run starts after a short disabled period that brings the
+ * drivetrain to a stop. The logger is not started, so runs are not logged.
+ *
+ * <p>Run from Gradle with {@code ./gradlew simulateAutos}, optionally passing {@code
+ * -Pautos=First,Second} to choose the autos, or from a test with {@link #getInstance()}.
+ */
+public final class HeadlessSimulation {
+  private static final double LOOP_PERIOD_SECS = 0.02;
+  private static final double SETTLE_SECS = 0.5;
+  private static final double DEFAULT_TIMEOUT_SECS = 15.0;
+
+  /**
+   * The outcome of one run.
+   *
+   * @param name The name of the run.
+   * @param finished Whether the command finished before the timeout.
+   * @param simulatedSecs The simulated time from scheduling the command until it finished or
+   *     timed out.
+   * @param wallSecs The real time the run took.
+   * @param finalPose The estimated pose of the robot at the end of the run.
+   */
+  public record Result(
+      String name, boolean finished, double simulatedSecs, double wallSecs, Pose2d finalPose) {
+    @Override
+    public String toString() {
+      return String.format(
+          "%s: %s after %.2f s simulated in %.3f s, ending at (%.2f, %.2f, %.1f deg)",
+          name,
+          finished ? "finished" : "timed out",
+          simulatedSecs,
+          wallSecs,
+          finalPose.getX(),
+          finalPose.getY(),
+          finalPose.getRotation().getDegrees());
+    }
+  }
+
+  private static HeadlessSimulation instance = null;
+
+  private final RobotContainer robotContainer;
+
+  /** Returns the simulation, starting the HAL and creating the robot code on first use. */
+  public static synchronized HeadlessSimulation getInstance() {
+    if (instance == null) {
+      instance = new HeadlessSimulation();
+    }
+    return instance;
+  }
+
+  private HeadlessSimulation() {
+    if (!HAL.initialize(500, 0)) {
+      throw new IllegalStateException("Failed to initialize the HAL.");
+    }
+    SimHooks.pauseTiming();
+    DriverStation.silenceJoystickConnectionWarning(true);
+    DriverStationSim.setAllianceStationId(AllianceStationID.Blue1);
+    DriverStationSim.setDsAttached(true);
+    setEnabled(false);
+    robotContainer = new RobotContainer();
+  }
+
+  /**
+   * Runs a command in autonomous until it finishes or times out.
+   *
+   * @param name The name of the run, used for the result.
+   * @param command Creates the command to run.
+   * @param timeoutSecs The longest simulated time to run for.
+   * @return The result of the run.
+   */
+  public Result run(String name, Supplier<Command> command, double timeoutSecs) {
+    CommandScheduler scheduler = CommandScheduler.getInstance();
+    scheduler.cancelAll();
+    setEnabled(false);
+    for (int i = 0; i < Math.round(SETTLE_SECS / LOOP_PERIOD_SECS); i++) {
+      step();
+    }
+
+    setEnabled(true);
+    Command runCommand = command.get();
+    long wallStart = System.nanoTime();
+    double start = Timer.getFPGATimestamp();
+    scheduler.schedule(runCommand);
+    while (runCommand.isScheduled() && Timer.getFPGATimestamp() - start < timeoutSecs) {
+      step();
+    }
+    boolean finished = !runCommand.isScheduled();
+    double simulatedSecs = Timer.getFPGATimestamp() - start;
+    scheduler.cancelAll();
+    setEnabled(false);
+    return new Result(
+        name,
+        finished,
+        simulatedSecs,
+        (System.nanoTime() - wallStart) / 1e9,
+        robotContainer.getPose2D());
+  }
+
+  /**
+   * Runs PathPlanner autos one after another.
+   *
+   * @param autoNames The names of the autos, or all autos in the deploy directory if empty.
+   * @param timeoutSecs The longest simulated time to run each auto for.
+   * @return The result of each auto, in order.
+   */
+  public List<Result> runAutos(List<String> autoNames, double timeoutSecs) {
+    List<String> names = autoNames.isEmpty() ? AutoBuilder.getAllAutoNames() : autoNames;
+    List<Result> results = new ArrayList<>();
+    for (String name : names) {
+      results.add(run(name, () -> AutoBuilder.buildAuto(name), timeoutSecs));
+    }
+    return results;
+  }
+
+  /** Advances the clock by one loop period and runs one loop of the robot code. */
+  private void step() {
+    SimHooks.stepTiming(LOOP_PERIOD_SECS);
+    DriverStation.refreshData();
+    CommandScheduler.getInstance().run();
+  }
+
+  /** Switches between disabled and autonomous. */
+  private static void setEnabled(boolean enabled) {
+    DriverStationSim.setAutonomous(true);
+    DriverStationSim.setEnabled(enabled);
+    DriverStationSim.notifyNewData();
+  }
+
+  /**
+   * Runs the autos named in the arguments, or every auto if there are none, and prints the
+   * results.
+   */
+  public static void main(String... args) {
+    List<Result> results = getInstance().runAutos(List.of(args), DEFAULT_TIMEOUT_SECS);
+    double wallSecs = 0.0;
+    for (Result result : results) {
+      System.out.println(result);
+      wallSecs += result.wallSecs();
+    }
+    System.out.printf("Ran %d autos in %.3f s%n", results.size(), wallSecs);
+    System.exit(results.stream().allMatch(Result::finished) ? 0 : 1);
+  }
+}
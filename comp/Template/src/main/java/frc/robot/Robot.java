@@ -4,12 +4,16 @@
 
 package frc.robot;
 
+import frc.robot.util.TelemetryTiers;
+import frc.robot.util.TelemetryTiers.Level;
+import org.bobcatrobotics.Util.ManagedThread;
 import org.littletonrobotics.junction.LogFileUtil;
 import org.littletonrobotics.junction.LoggedRobot;
 import org.littletonrobotics.junction.Logger;
 import org.littletonrobotics.junction.networktables.NT4Publisher;
 import org.littletonrobotics.junction.wpilog.WPILOGReader;
 import org.littletonrobotics.junction.wpilog.WPILOGWriter;
+import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
 
@@ -50,14 +54,15 @@ public class Robot extends LoggedRobot {
     // Set up data receivers & replay source
     switch (Constants.currentMode) {
       case REAL:
-        // Running on a real robot, log to a USB stick ("/U/logs")
+        // Running on a real robot, log everything to a USB stick ("/U/logs") and send less to NT
         Logger.addDataReceiver(new WPILOGWriter());
-        Logger.addDataReceiver(new NT4Publisher());
+        Logger.addDataReceiver(TelemetryTiers.filter(new NT4Publisher()));
+        TelemetryTiers.setLevel(Level.DECIMATED);
         break;
 
       case SIM:
         // Running a physics simulator, log to NT
-        Logger.addDataReceiver(new NT4Publisher());
+        Logger.addDataReceiver(TelemetryTiers.filter(new NT4Publisher()));
         break;
 
       case REPLAY:
@@ -91,6 +96,12 @@ public class Robot extends LoggedRobot {
     // and running subsystem periodic() methods.  This must be called from the robot's periodic
     // block in order for anything in the Command-based framework to work.
     CommandScheduler.getInstance().run();
+
+    // Only send match-critical telemetry to the dashboard during matches
+    TelemetryTiers.setMatchMode(DriverStation.isFMSAttached());
+
+    // Log scheduling latency of the real-time background threads
+    ManagedThread.logAll();
   }
 
   /** This function is called once each time the robot enters Disabled mode. */
@@ -72,7 +72,7 @@ public class RobotContainer {
             new ModuleIOTalonFX(TunerConstants.BackRight));
         // Vision
         vision =
-            new Vision(drive::addVisionMeasurement, new VisionIOLimelight("", drive::getRotation));
+            new Vision(drive::addVisionMeasurements, new VisionIOLimelight("", drive::getRotation));
         break;
       case SIM:
         // Sim robot, instantiate physics sim IO implementations
@@ -21,13 +21,11 @@ import edu.wpi.first.hal.FRCNetComm.tInstances;
 import edu.wpi.first.hal.FRCNetComm.tResourceType;
 import edu.wpi.first.hal.HAL;
 import edu.wpi.first.math.Matrix;
-import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.geometry.Twist2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
-import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
 import edu.wpi.first.math.numbers.N1;
@@ -37,21 +35,46 @@ import edu.wpi.first.wpilibj.Alert;
 import edu.wpi.first.wpilibj.Alert.AlertType;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
 import frc.robot.Constants;
 import frc.robot.Constants.Mode;
 import frc.robot.generated.TunerConstants;
+import frc.robot.subsystems.vision.VisionMeasurementBatch;
+import frc.robot.util.ControlDeduplicator;
+import frc.robot.util.DeviceConfigurator;
 import frc.robot.util.LocalADStarAK;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import frc.robot.util.PoseHistory;
+import frc.robot.util.StageProfiler;
+import frc.robot.util.StatusFrequencyPlanner;
+import frc.robot.util.TelemetryTiers;
+import frc.robot.util.TelemetryTiers.Tier;
+import java.util.Optional;
 import org.littletonrobotics.junction.AutoLogOutput;
 import org.littletonrobotics.junction.Logger;
 
 public class Drive extends SubsystemBase {
   // TunerConstants doesn't include these constants, so they are declared locally
-  static final double ODOMETRY_FREQUENCY = TunerConstants.kCANBus.isNetworkFD() ? 250.0 : 100.0;
+  static final double ODOMETRY_FREQUENCY =
+      getOdometryFrequency(TunerConstants.kCANBus.isNetworkFD());
+  // Integrate wheel odometry on the odometry thread so getLatestPose() is current to each sample
+  static final boolean HIGH_RATE_ODOMETRY = false;
+  // How far back getPoseAt() and getVelocityAt() can look
+  private static final double POSE_HISTORY_SECS = 2.0;
+  // Fraction of each CAN bus that status signals may use, leaving room for other traffic
+  private static final double TARGET_BUS_UTILIZATION = 0.6;
+  private static final Translation2d[] MODULE_TRANSLATIONS = getModuleTranslations();
+  private static final Rotation2d[] X_HEADINGS = {
+    MODULE_TRANSLATIONS[0].getAngle(),
+    MODULE_TRANSLATIONS[1].getAngle(),
+    MODULE_TRANSLATIONS[2].getAngle(),
+    MODULE_TRANSLATIONS[3].getAngle()
+  };
+  private static final SwerveModuleState[] NO_STATES = new SwerveModuleState[] {};
+  // Time from sending a setpoint to the motors acting on it: one CAN frame and a control period
+  private static final double ACTUATION_DELAY_SECS = 0.002;
   public static final double DRIVE_BASE_RADIUS =
       Math.max(
           Math.max(
@@ -79,25 +102,77 @@ public class Drive extends SubsystemBase {
               1),
           getModuleTranslations());
 
-  static final Lock odometryLock = new ReentrantLock();
   private final GyroIO gyroIO;
-  private final GyroIOInputsAutoLogged gyroInputs = new GyroIOInputsAutoLogged();
+  private final GyroIOInputsLogged gyroInputs = new GyroIOInputsLogged();
   private final Module[] modules = new Module[4]; // FL, FR, BL, BR
   private final SysIdRoutine sysId;
   private final Alert gyroDisconnectedAlert =
       new Alert("Disconnected gyro, using kinematics as fallback.", AlertType.kError);
 
-  private SwerveDriveKinematics kinematics = new SwerveDriveKinematics(getModuleTranslations());
+  private final PrimitiveSwerveKinematics kinematics =
+      new PrimitiveSwerveKinematics(MODULE_TRANSLATIONS);
   private Rotation2d rawGyroRotation = Rotation2d.kZero;
-  private SwerveModulePosition[] lastModulePositions = // For delta tracking
-      new SwerveModulePosition[] {
-        new SwerveModulePosition(),
-        new SwerveModulePosition(),
-        new SwerveModulePosition(),
-        new SwerveModulePosition()
-      };
-  private SwerveDrivePoseEstimator poseEstimator =
-      new SwerveDrivePoseEstimator(kinematics, rawGyroRotation, lastModulePositions, Pose2d.kZero);
+  private PrimitiveSwervePoseEstimator poseEstimator =
+      new PrimitiveSwervePoseEstimator(
+          MODULE_TRANSLATIONS,
+          rawGyroRotation,
+          new SwerveModulePosition[] {
+            new SwerveModulePosition(),
+            new SwerveModulePosition(),
+            new SwerveModulePosition(),
+            new SwerveModulePosition()
+          },
+          Pose2d.kZero);
+
+  // Reused by the odometry loop so that it does not allocate per sample
+  private final OdometryIntegrator odometryIntegrator =
+      new OdometryIntegrator(MODULE_TRANSLATIONS);
+  private final double[][] odometryDrivePositions = new double[4][];
+  private final double[][] odometryTurnPositionsRad = new double[4][];
+  private final double[][] odometryTimestamps = new double[4][];
+  private final OdometryIntegrator.SampleConsumer odometryConsumer = this::addOdometrySample;
+  private final PoseHistory poseHistory =
+      new PoseHistory((int) Math.ceil(POSE_HISTORY_SECS * ODOMETRY_FREQUENCY));
+  private final double[] odometryTwist = new double[3];
+  private double lastOdometryTimestamp = Double.NaN;
+  private final HighRateOdometry highRateOdometry; // Null unless enabled on a real robot
+
+  // Stages of periodic(), timed when profiling is enabled
+  private static final int STAGE_SIGNAL_REFRESH = 0;
+  private static final int STAGE_GYRO_INPUTS = 1;
+  private static final int STAGE_PROCESS_INPUTS = 2;
+  private static final int STAGE_MODULES = 3;
+  private static final int STAGE_ODOMETRY = 4;
+  private static final int STAGE_OUTPUTS = 5;
+  private final StageProfiler profiler =
+      new StageProfiler(
+          "Drive",
+          "SignalRefresh",
+          "GyroInputs",
+          "ProcessInputs",
+          "Modules",
+          "Odometry",
+          "Outputs");
+
+  // Reused by the control path so that it does not allocate each loop
+  private final LatencyCompensator latencyCompensator =
+      new LatencyCompensator(ACTUATION_DELAY_SECS);
+  private final ChassisSpeeds stopSpeeds = new ChassisSpeeds();
+  private final ChassisSpeeds discreteSpeeds = new ChassisSpeeds();
+  private final double[] discretizeTwist = new double[3];
+  private final SwerveModuleState[] setpointStates = newModuleStates();
+  private final SwerveModuleState[] measuredStates = newModuleStates();
+  private final ChassisSpeeds measuredSpeeds = new ChassisSpeeds();
+
+  // Whether the status signal plan has been applied, see applyStatusPlanWhenConfigured()
+  private boolean statusPlanApplied = false;
+
+  // Rates of control requests sent and skipped as unchanged, measured over about a second
+  private double controlRateWindowStart = Double.NaN;
+  private long controlSentAtWindowStart = 0;
+  private long controlSkippedAtWindowStart = 0;
+  private double controlSentPerSec = 0.0;
+  private double controlSkippedPerSec = 0.0;
 
   public Drive(
       GyroIO gyroIO,
@@ -111,10 +186,31 @@ public class Drive extends SubsystemBase {
     modules[2] = new Module(blModuleIO, 2, TunerConstants.BackLeft);
     modules[3] = new Module(brModuleIO, 3, TunerConstants.BackRight);
 
+    // Assign telemetry tiers, so high-volume outputs are thinned out on the dashboard
+    TelemetryTiers.register(
+        Tier.DEBUG,
+        "SwerveStates",
+        "SwerveChassisSpeeds",
+        "Drive/Module",
+        "Drive/Gyro",
+        "Drive/Latency",
+        "Odometry/VisionBatch",
+        "Odometry/Predicted");
+    TelemetryTiers.register(Tier.CRITICAL, "Odometry/Robot", "Drive/Gyro/Connected");
+
     // Usage reporting for swerve template
     HAL.report(tResourceType.kResourceType_RobotDrive, tInstances.kRobotDriveSwerve_AdvantageKit);
 
-    // Start odometry thread
+    // Wait for the module and gyro IOs to finish configuring their devices in parallel, then plan
+    // the status signal frequencies of every registered device against the bus budget
+    DeviceConfigurator.awaitAll();
+    applyStatusPlanWhenConfigured();
+
+    // Start odometry thread, integrating odometry on it if enabled
+    highRateOdometry =
+        HIGH_RATE_ODOMETRY && Constants.currentMode == Mode.REAL
+            ? HighRateOdometry.create(MODULE_TRANSLATIONS, modules)
+            : null;
     PhoenixOdometryThread.getInstance().start();
 
     // Configure AutoBuilder for PathPlanner
@@ -152,13 +248,20 @@ public class Drive extends SubsystemBase {
 
   @Override
   public void periodic() {
-    odometryLock.lock(); // Prevents odometry updates while reading data
+    profiler.start();
+    applyStatusPlanWhenConfigured();
+    latencyCompensator.updateLoop(Timer.getFPGATimestamp());
+    PhoenixOdometryThread.getInstance().beginRead(); // Pins a consistent set of samples to read
+    PhoenixSignalRegistry.getInstance().refreshAll(); // One refresh for every module and the gyro
+    profiler.mark(STAGE_SIGNAL_REFRESH);
     gyroIO.updateInputs(gyroInputs);
+    profiler.mark(STAGE_GYRO_INPUTS);
     Logger.processInputs("Drive/Gyro", gyroInputs);
+    profiler.mark(STAGE_PROCESS_INPUTS);
     for (var module : modules) {
       module.periodic();
     }
-    odometryLock.unlock();
+    profiler.mark(STAGE_MODULES);
 
     // Stop moving when disabled
     if (DriverStation.isDisabled()) {
@@ -169,56 +272,131 @@ public class Drive extends SubsystemBase {
 
     // Log empty setpoint states when disabled
     if (DriverStation.isDisabled()) {
-      Logger.recordOutput("SwerveStates/Setpoints", new SwerveModuleState[] {});
-      Logger.recordOutput("SwerveStates/SetpointsOptimized", new SwerveModuleState[] {});
+      Logger.recordOutput("SwerveStates/Setpoints", NO_STATES);
+      Logger.recordOutput("SwerveStates/SetpointsOptimized", NO_STATES);
     }
 
+    profiler.mark(STAGE_OUTPUTS);
+
     // Update odometry
-    double[] sampleTimestamps =
-        modules[0].getOdometryTimestamps(); // All signals are sampled together
-    int sampleCount = sampleTimestamps.length;
-    for (int i = 0; i < sampleCount; i++) {
-      // Read wheel positions and deltas from each module
-      SwerveModulePosition[] modulePositions = new SwerveModulePosition[4];
-      SwerveModulePosition[] moduleDeltas = new SwerveModulePosition[4];
-      for (int moduleIndex = 0; moduleIndex < 4; moduleIndex++) {
-        modulePositions[moduleIndex] = modules[moduleIndex].getOdometryPositions()[i];
-        moduleDeltas[moduleIndex] =
-            new SwerveModulePosition(
-                modulePositions[moduleIndex].distanceMeters
-                    - lastModulePositions[moduleIndex].distanceMeters,
-                modulePositions[moduleIndex].angle);
-        lastModulePositions[moduleIndex] = modulePositions[moduleIndex];
+    // Each module has its own sample timestamps, which the integrator combines per sample
+    int sampleCount = Integer.MAX_VALUE;
+    for (int i = 0; i < 4; i++) {
+      odometryTimestamps[i] = modules[i].getOdometryTimestamps();
+      sampleCount = Math.min(sampleCount, odometryTimestamps[i].length);
+      odometryDrivePositions[i] = modules[i].getOdometryDrivePositionsMeters();
+      odometryTurnPositionsRad[i] = modules[i].getOdometryTurnPositionsRad();
+    }
+    odometryIntegrator.integrate(
+        odometryTimestamps,
+        sampleCount,
+        odometryDrivePositions,
+        odometryTurnPositionsRad,
+        gyroInputs.connected,
+        gyroInputs.odometryYawTimestamps,
+        gyroInputs.odometryYawPositions,
+        odometryConsumer);
+    if (sampleCount > 0) {
+      rawGyroRotation = new Rotation2d(odometryIntegrator.getYawRad());
+      double latestTimestamp = odometryIntegrator.getLatestTimestamp();
+      latencyCompensator.updateState(latestTimestamp, odometryIntegrator.getYawRad());
+      if (highRateOdometry != null && highRateOdometry.updateAnchor(latestTimestamp)) {
+        highRateOdometry.updateCorrection(poseEstimator.getEstimatedPosition());
       }
+    }
+    profiler.mark(STAGE_ODOMETRY);
 
-      // Update gyro angle
-      if (gyroInputs.connected) {
-        // Use the real gyro angle
-        rawGyroRotation = gyroInputs.odometryYawPositions[i];
-      } else {
-        // Use the angle delta from the kinematics and module deltas
-        Twist2d twist = kinematics.toTwist2d(moduleDeltas);
-        rawGyroRotation = rawGyroRotation.plus(new Rotation2d(twist.dtheta));
-      }
+    // Log latency measurements
+    Logger.recordOutput(
+        "Drive/Latency/LoopPeriodMs", latencyCompensator.getLoopPeriodSecs() * 1000.0);
+    Logger.recordOutput(
+        "Drive/Latency/StateAgeMs",
+        latencyCompensator.getStateAgeSecs(Timer.getFPGATimestamp()) * 1000.0);
 
-      // Apply update
-      poseEstimator.updateWithTime(sampleTimestamps[i], rawGyroRotation, modulePositions);
-    }
+    updateControlRates(Timer.getFPGATimestamp());
 
     // Update gyro alert
     gyroDisconnectedAlert.set(!gyroInputs.connected && Constants.currentMode != Mode.SIM);
+    profiler.mark(STAGE_OUTPUTS);
+    profiler.finish();
   }
 
   /**
-   * Runs the drive at the desired velocity.
+   * Applies the status signal plan once no device is still being configured, so the planner never
+   * races a configuration in flight. Normally this happens at startup, but a device stuck past the
+   * worst-case configuration time delays it until the device finishes.
+   */
+  private void applyStatusPlanWhenConfigured() {
+    if (!statusPlanApplied && DeviceConfigurator.isFinished()) {
+      StatusFrequencyPlanner.getInstance().apply(TARGET_BUS_UTILIZATION);
+      statusPlanApplied = true;
+    }
+  }
+
+  /**
+   * Logs how many module control frames are sent and how many are saved by skipping unchanged
+   * requests. The module requests are one-shot, so each request is one frame.
+   */
+  private void updateControlRates(double timestamp) {
+    long sent = ControlDeduplicator.getTotalSent();
+    long skipped = ControlDeduplicator.getTotalSkipped();
+    if (Double.isNaN(controlRateWindowStart)) {
+      controlRateWindowStart = timestamp;
+      controlSentAtWindowStart = sent;
+      controlSkippedAtWindowStart = skipped;
+    } else if (timestamp - controlRateWindowStart >= 1.0) {
+      double windowSecs = timestamp - controlRateWindowStart;
+      controlSentPerSec = (sent - controlSentAtWindowStart) / windowSecs;
+      controlSkippedPerSec = (skipped - controlSkippedAtWindowStart) / windowSecs;
+      controlRateWindowStart = timestamp;
+      controlSentAtWindowStart = sent;
+      controlSkippedAtWindowStart = skipped;
+    }
+    Logger.recordOutput("Drive/Control/FramesSentPerSec", controlSentPerSec);
+    Logger.recordOutput("Drive/Control/FramesSavedPerSec", controlSkippedPerSec);
+  }
+
+  /** Integrates one odometry sample and records the resulting pose and velocity. */
+  private void addOdometrySample(
+      double timestamp,
+      double yawRad,
+      double[] distancesMeters,
+      double[] moduleCos,
+      double[] moduleSin) {
+    poseEstimator.updateWithTime(timestamp, yawRad, distancesMeters, moduleCos, moduleSin);
+    double dt = timestamp - lastOdometryTimestamp;
+    lastOdometryTimestamp = timestamp;
+    double rate = dt > 0.0 ? 1.0 / dt : 0.0; // No velocity for the first sample after a reset
+    poseEstimator.getOdometryTwist(odometryTwist);
+    poseHistory.addSample(
+        timestamp,
+        poseEstimator.getEstimatedX(),
+        poseEstimator.getEstimatedY(),
+        poseEstimator.getEstimatedRotationRad(),
+        odometryTwist[0] * rate,
+        odometryTwist[1] * rate,
+        odometryTwist[2] * rate);
+  }
+
+  /**
+   * Runs the drive at the desired velocity. The speeds are compensated for the rotation of the
+   * robot between the newest odometry sample and the time the modules act on them, and discretized
+   * over the measured loop period.
    *
    * @param speeds Speeds in meters/sec
    */
   public void runVelocity(ChassisSpeeds speeds) {
+    // Compensate for latency
+    double lookaheadSecs = latencyCompensator.getLookaheadSecs(Timer.getFPGATimestamp());
+    latencyCompensator.compensate(speeds, lookaheadSecs, discreteSpeeds);
+    Logger.recordOutput("Drive/Latency/CommandLatencyMs", lookaheadSecs * 1000.0);
+
     // Calculate module setpoints
-    ChassisSpeeds discreteSpeeds = ChassisSpeeds.discretize(speeds, 0.02);
-    SwerveModuleState[] setpointStates = kinematics.toSwerveModuleStates(discreteSpeeds);
-    SwerveDriveKinematics.desaturateWheelSpeeds(setpointStates, TunerConstants.kSpeedAt12Volts);
+    PrimitiveSwerveKinematics.discretize(
+        discreteSpeeds, latencyCompensator.getLoopPeriodSecs(), discreteSpeeds, discretizeTwist);
+    kinematics.toSwerveModuleStates(discreteSpeeds, setpointStates);
+    PrimitiveSwerveKinematics.desaturateWheelSpeeds(
+        setpointStates, getMaxLinearSpeedMetersPerSec());
 
     // Log unoptimized setpoints and setpoint speeds
     Logger.recordOutput("SwerveStates/Setpoints", setpointStates);
@@ -242,7 +420,7 @@ public class Drive extends SubsystemBase {
 
   /** Stops the drive. */
   public void stop() {
-    runVelocity(new ChassisSpeeds());
+    runVelocity(stopSpeeds);
   }
 
   /**
@@ -250,11 +428,7 @@ public class Drive extends SubsystemBase {
    * return to their normal orientations the next time a nonzero velocity is requested.
    */
   public void stopWithX() {
-    Rotation2d[] headings = new Rotation2d[4];
-    for (int i = 0; i < 4; i++) {
-      headings[i] = getModuleTranslations()[i].getAngle();
-    }
-    kinematics.resetHeadings(headings);
+    kinematics.resetHeadings(X_HEADINGS);
     stop();
   }
 
@@ -270,14 +444,17 @@ public class Drive extends SubsystemBase {
     return run(() -> runCharacterization(0.0)).withTimeout(1.0).andThen(sysId.dynamic(direction));
   }
 
-  /** Returns the module states (turn angles and drive velocities) for all of the modules. */
+  /**
+   * Returns the module states (turn angles and drive velocities) for all of the modules. The array
+   * and its states are reused, so they are only valid until the next call.
+   */
   @AutoLogOutput(key = "SwerveStates/Measured")
   private SwerveModuleState[] getModuleStates() {
-    SwerveModuleState[] states = new SwerveModuleState[4];
     for (int i = 0; i < 4; i++) {
-      states[i] = modules[i].getState();
+      measuredStates[i].speedMetersPerSecond = modules[i].getVelocityMetersPerSec();
+      measuredStates[i].angle = modules[i].getAngle();
     }
-    return states;
+    return measuredStates;
   }
 
   /** Returns the module positions (turn angles and drive positions) for all of the modules. */
@@ -289,10 +466,14 @@ public class Drive extends SubsystemBase {
     return states;
   }
 
-  /** Returns the measured chassis speeds of the robot. */
+  /**
+   * Returns the measured chassis speeds of the robot. The object is reused, so it is only valid
+   * until the next call.
+   */
   @AutoLogOutput(key = "SwerveChassisSpeeds/Measured")
   private ChassisSpeeds getChassisSpeeds() {
-    return kinematics.toChassisSpeeds(getModuleStates());
+    kinematics.toChassisSpeeds(getModuleStates(), measuredSpeeds);
+    return measuredSpeeds;
   }
 
   /** Returns the position of each module in radians. */
@@ -319,6 +500,63 @@ public class Drive extends SubsystemBase {
     return poseEstimator.getEstimatedPosition();
   }
 
+  /**
+   * Returns the pose current to the latest odometry sample, for aiming. With high-rate odometry
+   * this may be called from any thread, and otherwise it is the same as {@link #getPose()}.
+   *
+   * <p>The high-rate pose comes from the odometry thread rather than the logged inputs, so replay
+   * cannot reproduce it. Anything that decides what the robot does each loop should use {@link
+   * #getPose()}, or record this pose once per loop as a logged input.
+   */
+  public Pose2d getLatestPose() {
+    if (highRateOdometry != null) {
+      Pose2d pose = highRateOdometry.getPose();
+      if (pose != null) {
+        return pose;
+      }
+    }
+    return getPose();
+  }
+
+  /**
+   * Returns the estimated pose at the specified time, interpolated between odometry samples. Poses
+   * are recorded as estimated when each sample arrived, so vision measurements added later do not
+   * change them. Times outside the last two seconds return the oldest or newest pose.
+   *
+   * @param timestampSeconds The time in seconds, on the same timebase as the odometry samples.
+   * @return The pose, or empty if no odometry has been recorded since the last reset.
+   */
+  public Optional<Pose2d> getPoseAt(double timestampSeconds) {
+    return poseHistory.getPoseAt(timestampSeconds);
+  }
+
+  /**
+   * Returns the robot-relative velocity at the specified time, measured by wheel odometry and the
+   * gyro. Times outside the last two seconds return the oldest or newest velocity.
+   *
+   * @param timestampSeconds The time in seconds, on the same timebase as the odometry samples.
+   * @return The velocity, or empty if no odometry has been recorded since the last reset.
+   */
+  public Optional<ChassisSpeeds> getVelocityAt(double timestampSeconds) {
+    return poseHistory.getVelocityAt(timestampSeconds);
+  }
+
+  /**
+   * Returns the pose the robot is predicted to have when a setpoint sent now takes effect,
+   * extrapolated from the current pose with the measured chassis speeds and yaw rate.
+   */
+  @AutoLogOutput(key = "Odometry/Predicted")
+  public Pose2d getPredictedPose() {
+    double lookaheadSecs = latencyCompensator.getLookaheadSecs(Timer.getFPGATimestamp());
+    ChassisSpeeds speeds = getChassisSpeeds();
+    return getPose()
+        .exp(
+            new Twist2d(
+                speeds.vxMetersPerSecond * lookaheadSecs,
+                speeds.vyMetersPerSecond * lookaheadSecs,
+                latencyCompensator.getYawRateRadPerSec() * lookaheadSecs));
+  }
+
   /** Returns the current odometry rotation. */
   public Rotation2d getRotation() {
     return getPose().getRotation();
@@ -327,6 +565,11 @@ public class Drive extends SubsystemBase {
   /** Resets the current odometry pose. */
   public void setPose(Pose2d pose) {
     poseEstimator.resetPosition(rawGyroRotation, getModulePositions(), pose);
+    poseHistory.clear();
+    lastOdometryTimestamp = Double.NaN;
+    if (highRateOdometry != null) {
+      highRateOdometry.updateCorrection(pose);
+    }
   }
 
   /** Adds a new timestamped vision measurement. */
@@ -336,6 +579,32 @@ public class Drive extends SubsystemBase {
       Matrix<N3, N1> visionMeasurementStdDevs) {
     poseEstimator.addVisionMeasurement(
         visionRobotPoseMeters, timestampSeconds, visionMeasurementStdDevs);
+    if (highRateOdometry != null) {
+      highRateOdometry.updateCorrection(poseEstimator.getEstimatedPosition());
+    }
+  }
+
+  /**
+   * Adds all of a loop's vision measurements at once. The batch is sorted by timestamp so that no
+   * measurement discards a later one, and the latest estimate is updated once for the whole batch.
+   */
+  public void addVisionMeasurements(VisionMeasurementBatch batch) {
+    long startNanos = System.nanoTime();
+    batch.sortByTimestamp();
+    long discardedBefore = poseEstimator.getDiscardedVisionUpdateCount();
+    int applied = poseEstimator.addVisionMeasurements(batch);
+    if (highRateOdometry != null) {
+      highRateOdometry.updateCorrection(poseEstimator.getEstimatedPosition());
+    }
+    long elapsedNanos = System.nanoTime() - startNanos;
+
+    // Log how much work the estimator did
+    Logger.recordOutput("Odometry/VisionBatch/Measurements", batch.size());
+    Logger.recordOutput("Odometry/VisionBatch/Applied", applied);
+    Logger.recordOutput(
+        "Odometry/VisionBatch/DiscardedUpdates",
+        poseEstimator.getDiscardedVisionUpdateCount() - discardedBefore);
+    Logger.recordOutput("Odometry/VisionBatch/FusionMs", elapsedNanos / 1.0e6);
   }
 
   /** Returns the maximum linear speed in meters per sec. */
@@ -348,6 +617,21 @@ public class Drive extends SubsystemBase {
     return getMaxLinearSpeedMetersPerSec() / DRIVE_BASE_RADIUS;
   }
 
+  /** Returns the odometry sample rate supported by a CAN bus. */
+  static double getOdometryFrequency(boolean isCANFD) {
+    return isCANFD ? 250.0 : 100.0;
+  }
+
+  /** Returns a new array of module states, for use as a reused buffer. */
+  private static SwerveModuleState[] newModuleStates() {
+    return new SwerveModuleState[] {
+      new SwerveModuleState(),
+      new SwerveModuleState(),
+      new SwerveModuleState(),
+      new SwerveModuleState()
+    };
+  }
+
   /** Returns an array of module translations. */
   public static Translation2d[] getModuleTranslations() {
     return new Translation2d[] {
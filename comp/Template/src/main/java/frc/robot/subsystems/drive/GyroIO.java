@@ -16,8 +16,11 @@ public interface GyroIO {
     public boolean connected = false;
     public Rotation2d yawPosition = Rotation2d.kZero;
     public double yawVelocityRadPerSec = 0.0;
+    // Odometry samples, of the same length. The arrays are new each cycle, see ModuleIOInputs. Yaw
+    // positions are in radians. Older logs hold Rotation2d values under the same key, which
+    // GyroIOInputsLogged decodes in replay.
     public double[] odometryYawTimestamps = new double[] {};
-    public Rotation2d[] odometryYawPositions = new Rotation2d[] {};
+    public double[] odometryYawPositions = new double[] {};
   }
 
   public default void updateInputs(GyroIOInputs inputs) {}
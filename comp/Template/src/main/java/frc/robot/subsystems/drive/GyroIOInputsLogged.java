@@ -0,0 +1,23 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package frc.robot.subsystems.drive;
+
+import org.littletonrobotics.junction.LogTable;
+
+/**
+ * Gyro inputs that also replay logs recorded before the odometry yaw positions were primitive. See
+ * {@link ModuleIOInputsLogged}.
+ */
+public class GyroIOInputsLogged extends GyroIOInputsAutoLogged {
+  @Override
+  public void fromLog(LogTable table) {
+    super.fromLog(table);
+    odometryYawPositions =
+        ModuleIOInputsLogged.readRadians(table, "OdometryYawPositions", odometryYawPositions);
+  }
+}
@@ -11,17 +11,24 @@ import com.studica.frc.AHRS;
 import com.studica.frc.AHRS.NavXComType;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.util.Units;
-import java.util.Queue;
+import frc.robot.util.DoubleRingBuffer;
+import java.util.Arrays;
 
 /** IO implementation for NavX. */
 public class GyroIONavX implements GyroIO {
-  private final AHRS navX = new AHRS(NavXComType.kMXP_SPI, (byte) Drive.ODOMETRY_FREQUENCY);
-  private final Queue<Double> yawPositionQueue;
-  private final Queue<Double> yawTimestampQueue;
+  /** The NavX cannot publish faster than 200 Hz, so it is sampled at its own rate. */
+  private static final double UPDATE_FREQUENCY = Math.min(Drive.ODOMETRY_FREQUENCY, 200.0);
+
+  private final AHRS navX = new AHRS(NavXComType.kMXP_SPI, (int) UPDATE_FREQUENCY);
+  private final DoubleRingBuffer yawPositionQueue;
+  private final DoubleRingBuffer yawTimestampQueue;
+  private final double[] yawPositionBuffer = new double[PhoenixOdometryThread.QUEUE_CAPACITY];
+  private final double[] yawTimestampBuffer = new double[PhoenixOdometryThread.QUEUE_CAPACITY];
 
   public GyroIONavX() {
-    yawTimestampQueue = PhoenixOdometryThread.getInstance().makeTimestampQueue();
-    yawPositionQueue = PhoenixOdometryThread.getInstance().registerSignal(navX::getYaw);
+    yawPositionQueue =
+        PhoenixOdometryThread.getInstance().registerSignal(navX::getYaw, UPDATE_FREQUENCY);
+    yawTimestampQueue = PhoenixOdometryThread.getInstance().makeTimestampQueue(yawPositionQueue);
   }
 
   @Override
@@ -30,14 +37,13 @@ public class GyroIONavX implements GyroIO {
     inputs.yawPosition = Rotation2d.fromDegrees(-navX.getYaw());
     inputs.yawVelocityRadPerSec = Units.degreesToRadians(-navX.getRawGyroZ());
 
-    inputs.odometryYawTimestamps =
-        yawTimestampQueue.stream().mapToDouble((Double value) -> value).toArray();
-    inputs.odometryYawPositions =
-        yawPositionQueue.stream()
-            .map((Double value) -> Rotation2d.fromDegrees(-value))
-            .toArray(Rotation2d[]::new);
-    yawTimestampQueue.clear();
-    yawPositionQueue.clear();
+    int sampleCount = yawTimestampQueue.drainTo(yawTimestampBuffer);
+    sampleCount = Math.min(sampleCount, yawPositionQueue.drainTo(yawPositionBuffer));
+    inputs.odometryYawTimestamps = Arrays.copyOf(yawTimestampBuffer, sampleCount);
+    inputs.odometryYawPositions = new double[sampleCount];
+    for (int i = 0; i < sampleCount; i++) {
+      inputs.odometryYawPositions[i] = Units.degreesToRadians(-yawPositionBuffer[i]);
+    }
   }
 
     public double getPitch() {
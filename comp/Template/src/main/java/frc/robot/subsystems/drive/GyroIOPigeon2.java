@@ -7,8 +7,7 @@
 
 package frc.robot.subsystems.drive;
 
-import com.ctre.phoenix6.BaseStatusSignal;
-import com.ctre.phoenix6.StatusCode;
+import com.ctre.phoenix6.CANBus;
 import com.ctre.phoenix6.StatusSignal;
 import com.ctre.phoenix6.configs.Pigeon2Configuration;
 import com.ctre.phoenix6.hardware.Pigeon2;
@@ -17,46 +16,68 @@ import edu.wpi.first.math.util.Units;
 import edu.wpi.first.units.measure.Angle;
 import edu.wpi.first.units.measure.AngularVelocity;
 import frc.robot.generated.TunerConstants;
-import java.util.Queue;
+import frc.robot.util.ConfigFingerprints;
+import frc.robot.util.DeviceConfigurator;
+import frc.robot.util.DoubleRingBuffer;
+import frc.robot.util.StatusFrequencyPlanner;
+import frc.robot.util.StatusFrequencyPlanner.Priority;
+import java.util.Arrays;
 
 /** IO implementation for Pigeon 2. */
 public class GyroIOPigeon2 implements GyroIO {
-  private final Pigeon2 pigeon =
-      new Pigeon2(TunerConstants.DrivetrainConstants.Pigeon2Id, TunerConstants.kCANBus);
+  // May differ from the module bus, the odometry thread samples each bus separately
+  private static final CANBus CAN_BUS = TunerConstants.kCANBus;
+
+  private final Pigeon2 pigeon = new Pigeon2(TunerConstants.DrivetrainConstants.Pigeon2Id, CAN_BUS);
   private final StatusSignal<Angle> yaw = pigeon.getYaw();
-  private final Queue<Double> yawPositionQueue;
-  private final Queue<Double> yawTimestampQueue;
+  private final DoubleRingBuffer yawPositionQueue;
+  private final DoubleRingBuffer yawTimestampQueue;
+  private final double[] yawPositionBuffer = new double[PhoenixOdometryThread.QUEUE_CAPACITY];
+  private final double[] yawTimestampBuffer = new double[PhoenixOdometryThread.QUEUE_CAPACITY];
   private final StatusSignal<AngularVelocity> yawVelocity = pigeon.getAngularVelocityZWorld();
+  private final PhoenixSignalRegistry.SignalGroup signals;
 
   public GyroIOPigeon2() {
-    if (TunerConstants.DrivetrainConstants.Pigeon2Configs != null) {
-      pigeon.getConfigurator().apply(TunerConstants.DrivetrainConstants.Pigeon2Configs);
-    } else {
-      pigeon.getConfigurator().apply(new Pigeon2Configuration());
-    }
-
-    pigeon.getConfigurator().setYaw(0.0);
-    yaw.setUpdateFrequency(Drive.ODOMETRY_FREQUENCY);
-    yawVelocity.setUpdateFrequency(50.0);
-    pigeon.optimizeBusUtilization();
-    yawTimestampQueue = PhoenixOdometryThread.getInstance().makeTimestampQueue();
-    yawPositionQueue = PhoenixOdometryThread.getInstance().registerSignal(yaw.clone());
+    Pigeon2Configuration config =
+        TunerConstants.DrivetrainConstants.Pigeon2Configs != null
+            ? TunerConstants.DrivetrainConstants.Pigeon2Configs
+            : new Pigeon2Configuration();
+    String pigeonName = "Pigeon2_" + TunerConstants.DrivetrainConstants.Pigeon2Id;
+    var pigeonReadback = new Pigeon2Configuration();
+    DeviceConfigurator.configure(
+        pigeonName,
+        5,
+        ConfigFingerprints.MAX_CALLS_PER_ATTEMPT * 0.25,
+        ConfigFingerprints.applyIfChanged(
+            pigeonName,
+            config,
+            () -> pigeon.getConfigurator().apply(config, 0.25),
+            pigeonReadback,
+            () -> pigeon.getConfigurator().refresh(pigeonReadback, 0.25)),
+        () -> pigeon.getConfigurator().setYaw(0.0, 0.25));
+    double odometryFrequency = Drive.getOdometryFrequency(CAN_BUS.isNetworkFD());
+    var planner = StatusFrequencyPlanner.getInstance();
+    planner.register(
+        CAN_BUS, pigeon, Priority.ODOMETRY, odometryFrequency, odometryFrequency, yaw);
+    planner.register(CAN_BUS, pigeon, Priority.FEEDBACK, 20.0, 50.0, yawVelocity);
+    yawPositionQueue = PhoenixOdometryThread.getInstance().registerSignal(CAN_BUS, yaw.clone());
+    yawTimestampQueue = PhoenixOdometryThread.getInstance().makeTimestampQueue(yawPositionQueue);
+    signals = PhoenixSignalRegistry.getInstance().register(CAN_BUS, yaw, yawVelocity);
   }
 
   @Override
   public void updateInputs(GyroIOInputs inputs) {
-    inputs.connected = BaseStatusSignal.refreshAll(yaw, yawVelocity).equals(StatusCode.OK);
+    inputs.connected = signals.isOK(); // Refreshed by the drivetrain at the start of the loop
     inputs.yawPosition = Rotation2d.fromDegrees(yaw.getValueAsDouble());
     inputs.yawVelocityRadPerSec = Units.degreesToRadians(yawVelocity.getValueAsDouble());
 
-    inputs.odometryYawTimestamps =
-        yawTimestampQueue.stream().mapToDouble((Double value) -> value).toArray();
-    inputs.odometryYawPositions =
-        yawPositionQueue.stream()
-            .map((Double value) -> Rotation2d.fromDegrees(value))
-            .toArray(Rotation2d[]::new);
-    yawTimestampQueue.clear();
-    yawPositionQueue.clear();
+    int sampleCount = yawTimestampQueue.drainTo(yawTimestampBuffer);
+    sampleCount = Math.min(sampleCount, yawPositionQueue.drainTo(yawPositionBuffer));
+    inputs.odometryYawTimestamps = Arrays.copyOf(yawTimestampBuffer, sampleCount);
+    inputs.odometryYawPositions = new double[sampleCount];
+    for (int i = 0; i < sampleCount; i++) {
+      inputs.odometryYawPositions[i] = Units.degreesToRadians(yawPositionBuffer[i]);
+    }
   }
 
 
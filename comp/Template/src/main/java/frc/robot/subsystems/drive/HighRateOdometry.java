@@ -0,0 +1,249 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package frc.robot.subsystems.drive;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import frc.robot.util.DoubleRingBuffer;
+import frc.robot.util.PoseSnapshot;
+
+/**
+ * Integrates wheel odometry on the odometry thread as each batch of module samples arrives, so the
+ * pose can be read at any moment and is current to the latest sample rather than to the last robot
+ * loop.
+ *
+ * <p>Gyro and vision fusion stay in the pose estimator on the main loop. Each cycle the main loop
+ * anchors this odometry to the estimator with a correction, which is the transform that maps the
+ * thread's pose at the estimator's latest sample onto the estimated pose. {@link #getPose()}
+ * applies the latest correction to the latest thread pose. Both are published through {@link
+ * PoseSnapshot}s, so reads never block the odometry thread.
+ *
+ * <p>The thread pose is not part of the logged inputs, so this is only used on a real robot.
+ */
+public class HighRateOdometry implements Runnable {
+  private final DoubleRingBuffer[] timestampQueues;
+  private final DoubleRingBuffer[] drivePositionQueues;
+  private final DoubleRingBuffer[] turnPositionQueues;
+  private final double[] wheelRadiiMeters;
+  private final PrimitiveSwerveKinematics kinematics;
+
+  // Only accessed by the odometry thread
+  private final double[] lastDistancesMeters;
+  private final double[] deltasMeters;
+  private final double[] cos;
+  private final double[] sin;
+  private final double[] twist = new double[3];
+  private boolean hasSample = false;
+  private double x = 0.0;
+  private double y = 0.0;
+  private double thetaRad = 0.0;
+
+  // Written by the odometry thread
+  private final PoseSnapshot odometry = new PoseSnapshot();
+  private final DoubleRingBuffer historyTimestamps =
+      new DoubleRingBuffer(PhoenixOdometryThread.QUEUE_CAPACITY);
+  private final DoubleRingBuffer historyX =
+      new DoubleRingBuffer(PhoenixOdometryThread.QUEUE_CAPACITY);
+  private final DoubleRingBuffer historyY =
+      new DoubleRingBuffer(PhoenixOdometryThread.QUEUE_CAPACITY);
+  private final DoubleRingBuffer historyTheta =
+      new DoubleRingBuffer(PhoenixOdometryThread.QUEUE_CAPACITY);
+
+  // Written by the main loop
+  private final PoseSnapshot correction = new PoseSnapshot();
+  private final double[] timestampBuffer = new double[PhoenixOdometryThread.QUEUE_CAPACITY];
+  private final double[] xBuffer = new double[PhoenixOdometryThread.QUEUE_CAPACITY];
+  private final double[] yBuffer = new double[PhoenixOdometryThread.QUEUE_CAPACITY];
+  private final double[] thetaBuffer = new double[PhoenixOdometryThread.QUEUE_CAPACITY];
+  private double anchorTimestamp = Double.NaN;
+  private double anchorX = 0.0;
+  private double anchorY = 0.0;
+  private double anchorThetaRad = 0.0;
+
+  // Read by any thread, each with its own copies
+  private final ThreadLocal<double[][]> readBuffers =
+      ThreadLocal.withInitial(() -> new double[2][4]);
+
+  /**
+   * Creates high-rate odometry for the specified modules and registers it with the odometry thread.
+   *
+   * @param moduleTranslations The locations of the modules relative to the robot center.
+   * @param modules The modules, in the same order.
+   * @return The new odometry, or null if any module is not sampled by the odometry thread.
+   */
+  public static HighRateOdometry create(Translation2d[] moduleTranslations, Module[] modules) {
+    ModuleIO.OdometryQueues[] queues = new ModuleIO.OdometryQueues[modules.length];
+    double[] wheelRadiiMeters = new double[modules.length];
+    for (int i = 0; i < modules.length; i++) {
+      queues[i] = modules[i].getOdometryQueues();
+      if (queues[i] == null) {
+        return null;
+      }
+      wheelRadiiMeters[i] = modules[i].getWheelRadiusMeters();
+    }
+    return new HighRateOdometry(moduleTranslations, wheelRadiiMeters, queues);
+  }
+
+  private HighRateOdometry(
+      Translation2d[] moduleTranslations,
+      double[] wheelRadiiMeters,
+      ModuleIO.OdometryQueues[] queues) {
+    int moduleCount = queues.length;
+    this.wheelRadiiMeters = wheelRadiiMeters;
+    kinematics = new PrimitiveSwerveKinematics(moduleTranslations);
+    lastDistancesMeters = new double[moduleCount];
+    deltasMeters = new double[moduleCount];
+    cos = new double[moduleCount];
+    sin = new double[moduleCount];
+
+    timestampQueues = new DoubleRingBuffer[moduleCount];
+    drivePositionQueues = new DoubleRingBuffer[moduleCount];
+    turnPositionQueues = new DoubleRingBuffer[moduleCount];
+    DoubleRingBuffer[] allQueues = new DoubleRingBuffer[moduleCount * 3];
+    for (int i = 0; i < moduleCount; i++) {
+      timestampQueues[i] = queues[i].timestamps();
+      drivePositionQueues[i] = queues[i].drivePositionsRot();
+      turnPositionQueues[i] = queues[i].turnPositionsRot();
+      allQueues[i * 3] = timestampQueues[i];
+      allQueues[i * 3 + 1] = drivePositionQueues[i];
+      allQueues[i * 3 + 2] = turnPositionQueues[i];
+    }
+    PhoenixOdometryThread.getInstance().addBatchListener(this, allQueues);
+  }
+
+  /** Integrates the latest batch. Called on the odometry thread after each batch is written. */
+  @Override
+  public void run() {
+    // Combine the module timestamps exactly as OdometryIntegrator does, so anchors match
+    double timestampSum = 0.0;
+    for (int i = 0; i < drivePositionQueues.length; i++) {
+      timestampSum += timestampQueues[i].getLastOffered();
+      double distance =
+          drivePositionQueues[i].getLastOffered() * 2.0 * Math.PI * wheelRadiiMeters[i];
+      double angle = turnPositionQueues[i].getLastOffered() * 2.0 * Math.PI;
+      deltasMeters[i] = distance - lastDistancesMeters[i];
+      cos[i] = Math.cos(angle);
+      sin[i] = Math.sin(angle);
+      lastDistancesMeters[i] = distance;
+    }
+    double timestamp = timestampSum / drivePositionQueues.length;
+    if (hasSample) {
+      // Apply the twist to the pose, as in Pose2d.exp
+      kinematics.toTwist2d(deltasMeters, cos, sin, twist);
+      double dx = twist[0];
+      double dy = twist[1];
+      double dtheta = twist[2];
+      double s;
+      double c;
+      if (Math.abs(dtheta) < 1e-9) {
+        s = 1.0 - dtheta * dtheta / 6.0;
+        c = 0.5 * dtheta;
+      } else {
+        s = Math.sin(dtheta) / dtheta;
+        c = (1.0 - Math.cos(dtheta)) / dtheta;
+      }
+      double localX = dx * s - dy * c;
+      double localY = dx * c + dy * s;
+      double headingCos = Math.cos(thetaRad);
+      double headingSin = Math.sin(thetaRad);
+      x += localX * headingCos - localY * headingSin;
+      y += localX * headingSin + localY * headingCos;
+      thetaRad += dtheta;
+    }
+    hasSample = true;
+
+    // Publish the pose, with the timestamp last so the main loop can drain the history in step.
+    // The main loop drains the timestamps before the rest, so every ring must have room or the
+    // entry is skipped in all of them, which keeps them paired.
+    odometry.write(timestamp, x, y, thetaRad);
+    if (historyTimestamps.hasRemainingCapacity()
+        && historyX.hasRemainingCapacity()
+        && historyY.hasRemainingCapacity()
+        && historyTheta.hasRemainingCapacity()) {
+      historyX.offer(x);
+      historyY.offer(y);
+      historyTheta.offer(thetaRad);
+      historyTimestamps.offer(timestamp);
+    } else {
+      historyTimestamps.recordDrop();
+    }
+  }
+
+  /**
+   * Finds the thread pose at the specified sample time, to pair with the estimated pose at the
+   * same time. Must be called from the main loop.
+   *
+   * @param timestamp The timestamp of the latest sample integrated by the pose estimator.
+   * @return Whether the thread had integrated that sample.
+   */
+  public boolean updateAnchor(double timestamp) {
+    int count = historyTimestamps.drainTo(timestampBuffer);
+    historyX.drainTo(xBuffer, count);
+    historyY.drainTo(yBuffer, count);
+    historyTheta.drainTo(thetaBuffer, count);
+    for (int i = count - 1; i >= 0; i--) {
+      if (timestampBuffer[i] == timestamp) {
+        anchorTimestamp = timestamp;
+        anchorX = xBuffer[i];
+        anchorY = yBuffer[i];
+        anchorThetaRad = thetaBuffer[i];
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Recomputes the correction so that the thread pose at the anchor maps onto the specified pose.
+   * Must be called from the main loop whenever the estimated pose changes.
+   *
+   * @param estimatedPose The estimated pose at the anchor time.
+   */
+  public void updateCorrection(Pose2d estimatedPose) {
+    if (Double.isNaN(anchorTimestamp)) {
+      return;
+    }
+    double correctionTheta = estimatedPose.getRotation().getRadians() - anchorThetaRad;
+    double correctionCos = Math.cos(correctionTheta);
+    double correctionSin = Math.sin(correctionTheta);
+    correction.write(
+        anchorTimestamp,
+        estimatedPose.getX() - (anchorX * correctionCos - anchorY * correctionSin),
+        estimatedPose.getY() - (anchorX * correctionSin + anchorY * correctionCos),
+        correctionTheta);
+  }
+
+  /**
+   * Returns the latest corrected pose, or null before the first correction. May be called from any
+   * thread.
+   */
+  public Pose2d getPose() {
+    double[][] buffers = readBuffers.get();
+    double[] latest = buffers[0];
+    double[] latestCorrection = buffers[1];
+    odometry.read(latest);
+    correction.read(latestCorrection);
+    if (Double.isNaN(latest[0]) || Double.isNaN(latestCorrection[0])) {
+      return null;
+    }
+    double correctionCos = Math.cos(latestCorrection[3]);
+    double correctionSin = Math.sin(latestCorrection[3]);
+    return new Pose2d(
+        latestCorrection[1] + latest[1] * correctionCos - latest[2] * correctionSin,
+        latestCorrection[2] + latest[1] * correctionSin + latest[2] * correctionCos,
+        new Rotation2d(latestCorrection[3] + latest[3]));
+  }
+
+  /** Returns the timestamp of the latest integrated sample in seconds, or NaN if none. */
+  public double getLatestTimestamp() {
+    double[] latest = readBuffers.get()[0];
+    odometry.read(latest);
+    return latest[0];
+  }
+}
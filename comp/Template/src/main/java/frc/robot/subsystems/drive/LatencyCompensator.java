@@ -0,0 +1,126 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package frc.robot.subsystems.drive;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+
+/**
+ * Compensates drive setpoints for the time between when the robot state was measured and when the
+ * modules act on the setpoint.
+ *
+ * <p>Setpoints are computed from the newest odometry sample, which is already stale by the time
+ * the loop runs: it has crossed the CAN bus, waited in the odometry queues and waited for the loop.
+ * The setpoint then takes a further CAN transmission to reach the motors. While the robot rotates,
+ * robot-relative velocities computed for the measured heading point the wrong way by the angle it
+ * turns over that time. This class measures the age of the state and the loop period, and rotates
+ * the translational velocity back by the predicted rotation. The measured loop period replaces the
+ * nominal 20 ms period when discretizing.
+ */
+public class LatencyCompensator {
+  private static final double NOMINAL_PERIOD_SECS = 0.02;
+  private static final double MIN_PERIOD_SECS = 0.005;
+  private static final double MAX_PERIOD_SECS = 0.1;
+  private static final double PERIOD_FILTER_GAIN = 0.1; // Smooths scheduling jitter
+
+  private final double actuationDelaySecs;
+  private double loopPeriodSecs = NOMINAL_PERIOD_SECS;
+  private double lastLoopTimestamp = Double.NaN;
+  private double stateTimestamp = Double.NaN;
+  private double stateYawRad = 0.0;
+  private double yawRateRadPerSec = 0.0;
+
+  /**
+   * Creates a new compensator.
+   *
+   * @param actuationDelaySecs The time from sending a setpoint to the motors acting on it, which
+   *     cannot be measured from the robot. About one CAN frame plus the motor control period.
+   */
+  public LatencyCompensator(double actuationDelaySecs) {
+    this.actuationDelaySecs = actuationDelaySecs;
+  }
+
+  /**
+   * Records the start of a robot loop, updating the measured loop period.
+   *
+   * @param timestamp The current FPGA time in seconds.
+   */
+  public void updateLoop(double timestamp) {
+    if (!Double.isNaN(lastLoopTimestamp)) {
+      double period =
+          MathUtil.clamp(timestamp - lastLoopTimestamp, MIN_PERIOD_SECS, MAX_PERIOD_SECS);
+      loopPeriodSecs += PERIOD_FILTER_GAIN * (period - loopPeriodSecs);
+    }
+    lastLoopTimestamp = timestamp;
+  }
+
+  /**
+   * Records the newest odometry sample, updating the measured yaw rate.
+   *
+   * @param timestamp The time of the sample in FPGA seconds.
+   * @param yawRad The yaw of the sample in radians.
+   */
+  public void updateState(double timestamp, double yawRad) {
+    if (timestamp <= stateTimestamp) {
+      return;
+    }
+    if (!Double.isNaN(stateTimestamp)) {
+      yawRateRadPerSec =
+          MathUtil.angleModulus(yawRad - stateYawRad) / (timestamp - stateTimestamp);
+    }
+    stateTimestamp = timestamp;
+    stateYawRad = yawRad;
+  }
+
+  /** Returns the smoothed loop period in seconds. */
+  public double getLoopPeriodSecs() {
+    return loopPeriodSecs;
+  }
+
+  /** Returns the yaw rate over the last loop in radians per second. */
+  public double getYawRateRadPerSec() {
+    return yawRateRadPerSec;
+  }
+
+  /**
+   * Returns the age of the newest odometry sample in seconds, or zero if there has been none.
+   *
+   * @param timestamp The current FPGA time in seconds.
+   */
+  public double getStateAgeSecs(double timestamp) {
+    return Double.isNaN(stateTimestamp) ? 0.0 : Math.max(timestamp - stateTimestamp, 0.0);
+  }
+
+  /**
+   * Returns how far ahead of the newest odometry sample a setpoint sent now takes effect.
+   *
+   * @param timestamp The current FPGA time in seconds.
+   */
+  public double getLookaheadSecs(double timestamp) {
+    return getStateAgeSecs(timestamp) + actuationDelaySecs;
+  }
+
+  /**
+   * Rotates robot-relative speeds computed for the measured heading to the heading the robot is
+   * predicted to have when the setpoint takes effect.
+   *
+   * @param speeds The robot-relative speeds.
+   * @param lookaheadSecs The lookahead from {@link #getLookaheadSecs(double)}.
+   * @param result Receives the compensated speeds. May be the same object as the input.
+   */
+  public void compensate(ChassisSpeeds speeds, double lookaheadSecs, ChassisSpeeds result) {
+    double rotation = -yawRateRadPerSec * lookaheadSecs;
+    double cos = Math.cos(rotation);
+    double sin = Math.sin(rotation);
+    double vx = speeds.vxMetersPerSecond;
+    double vy = speeds.vyMetersPerSecond;
+    result.vxMetersPerSecond = vx * cos - vy * sin;
+    result.vyMetersPerSecond = vx * sin + vy * cos;
+    result.omegaRadiansPerSecond = speeds.omegaRadiansPerSecond;
+  }
+}
@@ -16,11 +16,12 @@ import edu.wpi.first.math.kinematics.SwerveModuleState;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.wpilibj.Alert;
 import edu.wpi.first.wpilibj.Alert.AlertType;
+import frc.robot.util.StageProfiler;
 import org.littletonrobotics.junction.Logger;
 
 public class Module {
   private final ModuleIO io;
-  private final ModuleIOInputsAutoLogged inputs = new ModuleIOInputsAutoLogged();
+  private final ModuleIOInputsLogged inputs = new ModuleIOInputsLogged();
   private final int index;
   private final SwerveModuleConstants<
           TalonFXConfiguration, TalonFXConfiguration, CANcoderConfiguration>
@@ -29,7 +30,14 @@ public class Module {
   private final Alert driveDisconnectedAlert;
   private final Alert turnDisconnectedAlert;
   private final Alert turnEncoderDisconnectedAlert;
-  private SwerveModulePosition[] odometryPositions = new SwerveModulePosition[] {};
+  private double[] odometryDrivePositionsMeters =
+      new double[PhoenixOdometryThread.QUEUE_CAPACITY]; // Reused between cycles
+
+  // Stages of periodic(), timed when profiling is enabled
+  private static final int STAGE_UPDATE_INPUTS = 0;
+  private static final int STAGE_PROCESS_INPUTS = 1;
+  private static final int STAGE_ODOMETRY = 2;
+  private final StageProfiler profiler;
 
   public Module(
       ModuleIO io,
@@ -39,6 +47,9 @@ public class Module {
     this.io = io;
     this.index = index;
     this.constants = constants;
+    profiler =
+        new StageProfiler(
+            "Drive/Module" + Integer.toString(index), "UpdateInputs", "ProcessInputs", "Odometry");
     driveDisconnectedAlert =
         new Alert(
             "Disconnected drive motor on module " + Integer.toString(index) + ".",
@@ -53,22 +64,42 @@ public class Module {
   }
 
   public void periodic() {
+    profiler.start();
     io.updateInputs(inputs);
+    profiler.mark(STAGE_UPDATE_INPUTS);
     Logger.processInputs("Drive/Module" + Integer.toString(index), inputs);
+    profiler.mark(STAGE_PROCESS_INPUTS);
 
     // Calculate positions for odometry
-    int sampleCount = inputs.odometryTimestamps.length; // All signals are sampled together
-    odometryPositions = new SwerveModulePosition[sampleCount];
-    for (int i = 0; i < sampleCount; i++) {
-      double positionMeters = inputs.odometryDrivePositionsRad[i] * constants.WheelRadius;
-      Rotation2d angle = inputs.odometryTurnPositions[i];
-      odometryPositions[i] = new SwerveModulePosition(positionMeters, angle);
-    }
+    odometryDrivePositionsMeters =
+        toDrivePositionsMeters(inputs, constants.WheelRadius, odometryDrivePositionsMeters);
 
     // Update alerts
     driveDisconnectedAlert.set(!inputs.driveConnected);
     turnDisconnectedAlert.set(!inputs.turnConnected);
     turnEncoderDisconnectedAlert.set(!inputs.turnEncoderConnected);
+    profiler.mark(STAGE_ODOMETRY);
+    profiler.finish();
+  }
+
+  /**
+   * Converts the odometry drive positions of the inputs from radians to meters.
+   *
+   * @param inputs The module inputs.
+   * @param wheelRadius The wheel radius in meters.
+   * @param destination The array to fill, reused if it is long enough.
+   * @return The filled array, only the first sample count elements of which are valid.
+   */
+  static double[] toDrivePositionsMeters(
+      ModuleIO.ModuleIOInputs inputs, double wheelRadius, double[] destination) {
+    int sampleCount = inputs.odometryTimestamps.length; // All signals are sampled together
+    if (destination.length < sampleCount) {
+      destination = new double[sampleCount];
+    }
+    for (int i = 0; i < sampleCount; i++) {
+      destination[i] = inputs.odometryDrivePositionsRad[i] * wheelRadius;
+    }
+    return destination;
   }
 
   /** Runs the module with the specified setpoint state. Mutates the state to optimize it. */
@@ -119,9 +150,17 @@ public class Module {
     return new SwerveModuleState(getVelocityMetersPerSec(), getAngle());
   }
 
-  /** Returns the module positions received this cycle. */
-  public SwerveModulePosition[] getOdometryPositions() {
-    return odometryPositions;
+  /**
+   * Returns the drive positions in meters received this cycle. Only the first {@link
+   * #getOdometryTimestamps()}.length elements are valid, and the array is reused between cycles.
+   */
+  public double[] getOdometryDrivePositionsMeters() {
+    return odometryDrivePositionsMeters;
+  }
+
+  /** Returns the turn angles in radians received this cycle. */
+  public double[] getOdometryTurnPositionsRad() {
+    return inputs.odometryTurnPositions;
   }
 
   /** Returns the timestamps of the samples received this cycle. */
@@ -129,6 +168,16 @@ public class Module {
     return inputs.odometryTimestamps;
   }
 
+  /** Returns the odometry queues of the module, or null if it is not sampled by a thread. */
+  public ModuleIO.OdometryQueues getOdometryQueues() {
+    return io.getOdometryQueues();
+  }
+
+  /** Returns the wheel radius in meters. */
+  public double getWheelRadiusMeters() {
+    return constants.WheelRadius;
+  }
+
   /** Returns the module position in radians. */
   public double getWheelRadiusCharacterizationPosition() {
     return inputs.drivePositionRad;
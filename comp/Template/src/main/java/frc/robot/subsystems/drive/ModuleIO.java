@@ -8,9 +8,23 @@
 package frc.robot.subsystems.drive;
 
 import edu.wpi.first.math.geometry.Rotation2d;
+import frc.robot.util.DoubleRingBuffer;
 import org.littletonrobotics.junction.AutoLog;
 
 public interface ModuleIO {
+  /** Names of the status signals reported in the health arrays of the inputs, in order. */
+  public static final String[] HEALTH_SIGNAL_NAMES = {
+    "DrivePosition",
+    "DriveVelocity",
+    "DriveAppliedVolts",
+    "DriveCurrent",
+    "TurnPosition",
+    "TurnVelocity",
+    "TurnAppliedVolts",
+    "TurnCurrent",
+    "TurnAbsolutePosition"
+  };
+
   @AutoLog
   public static class ModuleIOInputs {
     public boolean driveConnected = false;
@@ -27,9 +41,40 @@ public interface ModuleIO {
     public double turnAppliedVolts = 0.0;
     public double turnCurrentAmps = 0.0;
 
+    // Health of each status signal, in the order of HEALTH_SIGNAL_NAMES. See SignalHealth.
+    public double[] signalAgesMs = new double[] {};
+    public double[] signalRatesHz = new double[] {};
+    public long[] signalErrorCounts = new long[] {};
+    public int[] signalStatusCodes = new int[] {};
+
+    // Odometry samples, all of the same length. The arrays are new each cycle, since logged arrays
+    // are kept by reference until the receivers write them. They are never longer than the sample
+    // count, so their length is the count and no separate count is logged. Turn positions are in
+    // radians. Older logs hold Rotation2d values under the same key, which ModuleIOInputsLogged
+    // decodes in replay.
     public double[] odometryTimestamps = new double[] {};
     public double[] odometryDrivePositionsRad = new double[] {};
-    public Rotation2d[] odometryTurnPositions = new Rotation2d[] {};
+    public double[] odometryTurnPositions = new double[] {};
+  }
+
+  /**
+   * Odometry queues filled by {@link PhoenixOdometryThread}, in the raw units of the signals.
+   *
+   * @param timestamps Sample timestamps in seconds.
+   * @param drivePositionsRot Drive motor positions in rotations of the wheel.
+   * @param turnPositionsRot Module angles in rotations.
+   */
+  public static record OdometryQueues(
+      DoubleRingBuffer timestamps,
+      DoubleRingBuffer drivePositionsRot,
+      DoubleRingBuffer turnPositionsRot) {}
+
+  /**
+   * Returns the odometry queues of this module, or null if it is not sampled by {@link
+   * PhoenixOdometryThread}.
+   */
+  public default OdometryQueues getOdometryQueues() {
+    return null;
   }
 
   /** Updates the set of loggable inputs. */
@@ -0,0 +1,46 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package frc.robot.subsystems.drive;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import org.littletonrobotics.junction.LogTable;
+import org.littletonrobotics.junction.LogTable.LoggableType;
+
+/**
+ * Module inputs that also replay logs recorded before the odometry turn positions were primitive.
+ * Those logs hold a {@code Rotation2d[]} under the same key, which the generated {@code fromLog}
+ * cannot read as a {@code double[]}.
+ */
+public class ModuleIOInputsLogged extends ModuleIOInputsAutoLogged {
+  @Override
+  public void fromLog(LogTable table) {
+    super.fromLog(table);
+    odometryTurnPositions = readRadians(table, "OdometryTurnPositions", odometryTurnPositions);
+  }
+
+  /**
+   * Reads an array of angles in radians, decoding the {@code Rotation2d[]} shape of older logs.
+   *
+   * @param table The table to read from.
+   * @param key The key of the array.
+   * @param value The value read by the generated {@code fromLog}.
+   * @return The angles in radians.
+   */
+  static double[] readRadians(LogTable table, String key, double[] value) {
+    LogTable.LogValue logged = table.get(key);
+    if (logged == null || logged.type == LoggableType.DoubleArray) {
+      return value;
+    }
+    Rotation2d[] rotations = table.get(key, new Rotation2d[0]);
+    double[] radians = new double[rotations.length];
+    for (int i = 0; i < rotations.length; i++) {
+      radians[i] = rotations[i].getRadians();
+    }
+    return radians;
+  }
+}
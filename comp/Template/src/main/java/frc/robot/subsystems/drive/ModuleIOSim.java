@@ -36,6 +36,9 @@ public class ModuleIOSim implements ModuleIO {
   private static final double TURN_KD = 0.0;
   private static final DCMotor DRIVE_GEARBOX = DCMotor.getKrakenX60Foc(1);
   private static final DCMotor TURN_GEARBOX = DCMotor.getKrakenX60Foc(1);
+  // Step used before the first update, and the longest step taken after a stall
+  private static final double DEFAULT_DT_SECS = 0.02;
+  private static final double MAX_DT_SECS = 0.1;
 
   private final DCMotorSim driveSim;
   private final DCMotorSim turnSim;
@@ -47,6 +50,7 @@ public class ModuleIOSim implements ModuleIO {
   private double driveFFVolts = 0.0;
   private double driveAppliedVolts = 0.0;
   private double turnAppliedVolts = 0.0;
+  private double lastTimestamp = Double.NaN;
 
   public ModuleIOSim(
       SwerveModuleConstants<TalonFXConfiguration, TalonFXConfiguration, CANcoderConfiguration>
@@ -82,11 +86,18 @@ public class ModuleIOSim implements ModuleIO {
       turnController.reset();
     }
 
-    // Update simulation state
+    // Update simulation state by the time since the last update, which follows the simulated
+    // clock when stepping faster than real time
+    double timestamp = Timer.getFPGATimestamp();
+    double dtSecs =
+        Double.isNaN(lastTimestamp)
+            ? DEFAULT_DT_SECS
+            : MathUtil.clamp(timestamp - lastTimestamp, 0.0, MAX_DT_SECS);
+    lastTimestamp = timestamp;
     driveSim.setInputVoltage(MathUtil.clamp(driveAppliedVolts, -12.0, 12.0));
     turnSim.setInputVoltage(MathUtil.clamp(turnAppliedVolts, -12.0, 12.0));
-    driveSim.update(0.02);
-    turnSim.update(0.02);
+    driveSim.update(dtSecs);
+    turnSim.update(dtSecs);
 
     // Update drive inputs
     inputs.driveConnected = true;
@@ -106,9 +117,9 @@ public class ModuleIOSim implements ModuleIO {
 
     // Update odometry inputs (50Hz because high-frequency odometry in sim doesn't
     // matter)
-    inputs.odometryTimestamps = new double[] {Timer.getFPGATimestamp()};
+    inputs.odometryTimestamps = new double[] {timestamp};
     inputs.odometryDrivePositionsRad = new double[] {inputs.drivePositionRad};
-    inputs.odometryTurnPositions = new Rotation2d[] {inputs.turnPosition};
+    inputs.odometryTurnPositions = new double[] {turnSim.getAngularPositionRad()};
   }
 
   @Override
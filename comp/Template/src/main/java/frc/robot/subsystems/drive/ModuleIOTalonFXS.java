@@ -7,9 +7,6 @@
 
 package frc.robot.subsystems.drive;
 
-import static frc.robot.util.PhoenixUtil.*;
-
-import com.ctre.phoenix6.BaseStatusSignal;
 import com.ctre.phoenix6.StatusSignal;
 import com.ctre.phoenix6.configs.CANdiConfiguration;
 import com.ctre.phoenix6.configs.TalonFXSConfiguration;
@@ -17,7 +14,6 @@ import com.ctre.phoenix6.controls.PositionVoltage;
 import com.ctre.phoenix6.controls.VelocityVoltage;
 import com.ctre.phoenix6.controls.VoltageOut;
 import com.ctre.phoenix6.hardware.CANdi;
-import com.ctre.phoenix6.hardware.ParentDevice;
 import com.ctre.phoenix6.hardware.TalonFXS;
 import com.ctre.phoenix6.signals.BrushedMotorWiringValue;
 import com.ctre.phoenix6.signals.ExternalFeedbackSensorSourceValue;
@@ -32,8 +28,14 @@ import edu.wpi.first.units.measure.Angle;
 import edu.wpi.first.units.measure.AngularVelocity;
 import edu.wpi.first.units.measure.Current;
 import edu.wpi.first.units.measure.Voltage;
+import edu.wpi.first.wpilibj.Timer;
 import frc.robot.generated.TunerConstants;
-import java.util.Queue;
+import frc.robot.util.ConfigFingerprints;
+import frc.robot.util.ControlDeduplicator;
+import frc.robot.util.DeviceConfigurator;
+import frc.robot.util.DoubleRingBuffer;
+import frc.robot.util.StatusFrequencyPlanner;
+import frc.robot.util.StatusFrequencyPlanner.Priority;
 
 /**
  * Module IO implementation for Talon FXS drive motor controller, Talon FXS turn motor controller,
@@ -42,22 +44,38 @@ import java.util.Queue;
  * <p>Device configuration and other behaviors not exposed by TunerConstants can be customized here.
  */
 public class ModuleIOTalonFXS implements ModuleIO {
+  // Control requests are one-shot frames, so unchanged requests are resent this often. Phoenix
+  // recommends at most 50 ms between one-shot control frames.
+  private static final double CONTROL_KEEP_ALIVE_SECS = 0.04;
+  private static final int CONTROL_OPEN_LOOP = 0;
+  private static final int CONTROL_CLOSED_LOOP = 1;
+
+  // Frequency ranges of the non-odometry signals, planned against the bus budget
+  private static final double FEEDBACK_MIN_HZ = 20.0;
+  private static final double TELEMETRY_MIN_HZ = 10.0;
+  private static final double STATUS_MAX_HZ = 50.0;
+
   // Hardware objects
   private final TalonFXS driveTalon;
   private final TalonFXS turnTalon;
   private final CANdi candi;
 
-  // Voltage control requests
-  private final VoltageOut voltageRequest = new VoltageOut(0);
-  private final PositionVoltage positionVoltageRequest = new PositionVoltage(0.0);
-  private final VelocityVoltage velocityVoltageRequest = new VelocityVoltage(0.0);
+  // Voltage control requests, sent only when set
+  private final VoltageOut voltageRequest = new VoltageOut(0).withUpdateFreqHz(0.0);
+  private final PositionVoltage positionVoltageRequest =
+      new PositionVoltage(0.0).withUpdateFreqHz(0.0);
+  private final VelocityVoltage velocityVoltageRequest =
+      new VelocityVoltage(0.0).withUpdateFreqHz(0.0);
 
   // Timestamp inputs from Phoenix thread
-  private final Queue<Double> timestampQueue;
+  private final DoubleRingBuffer timestampQueue;
+
+  // Drains the odometry queues into the inputs
+  private final ModuleOdometryReader odometryReader;
 
   // Inputs from drive motor
   private final StatusSignal<Angle> drivePosition;
-  private final Queue<Double> drivePositionQueue;
+  private final DoubleRingBuffer drivePositionQueue;
   private final StatusSignal<AngularVelocity> driveVelocity;
   private final StatusSignal<Voltage> driveAppliedVolts;
   private final StatusSignal<Current> driveCurrent;
@@ -65,11 +83,23 @@ public class ModuleIOTalonFXS implements ModuleIO {
   // Inputs from turn motor
   private final StatusSignal<Angle> turnAbsolutePosition;
   private final StatusSignal<Angle> turnPosition;
-  private final Queue<Double> turnPositionQueue;
+  private final DoubleRingBuffer turnPositionQueue;
   private final StatusSignal<AngularVelocity> turnVelocity;
   private final StatusSignal<Voltage> turnAppliedVolts;
   private final StatusSignal<Current> turnCurrent;
 
+  // Skip control requests that repeat the last one sent, saving one CAN frame each
+  private final ControlDeduplicator driveControl =
+      new ControlDeduplicator(1e-3, CONTROL_KEEP_ALIVE_SECS); // Volts, amps or rotations/sec
+  private final ControlDeduplicator turnControl =
+      new ControlDeduplicator(1e-4, CONTROL_KEEP_ALIVE_SECS); // Volts, amps or rotations
+
+  // Signal groups refreshed by the drivetrain once per loop
+  private final PhoenixSignalRegistry.SignalGroup driveSignals;
+  private final PhoenixSignalRegistry.SignalGroup turnSignals;
+  private final PhoenixSignalRegistry.SignalGroup turnEncoderSignals;
+  private final SignalHealth signalHealth; // In the order of HEALTH_SIGNAL_NAMES
+
   // Connection debouncers
   private final Debouncer driveConnectedDebounce =
       new Debouncer(0.5, Debouncer.DebounceType.kFalling);
@@ -102,8 +132,19 @@ public class ModuleIOTalonFXS implements ModuleIO {
         constants.DriveMotorInverted
             ? InvertedValue.Clockwise_Positive
             : InvertedValue.CounterClockwise_Positive;
-    tryUntilOk(5, () -> driveTalon.getConfigurator().apply(driveConfig, 0.25));
-    tryUntilOk(5, () -> driveTalon.setPosition(0.0, 0.25));
+    String driveName = "TalonFXS_" + constants.DriveMotorId;
+    var driveReadback = new TalonFXSConfiguration();
+    DeviceConfigurator.configure(
+        driveName,
+        5,
+        ConfigFingerprints.MAX_CALLS_PER_ATTEMPT * 0.25,
+        ConfigFingerprints.applyIfChanged(
+            driveName,
+            driveConfig,
+            () -> driveTalon.getConfigurator().apply(driveConfig, 0.25),
+            driveReadback,
+            () -> driveTalon.getConfigurator().refresh(driveReadback, 0.25)),
+        () -> driveTalon.setPosition(0.0, 0.25));
 
     // Configure turn motor
     var turnConfig = new TalonFXSConfiguration();
@@ -146,16 +187,35 @@ public class ModuleIOTalonFXS implements ModuleIO {
         constants.SteerMotorInverted
             ? InvertedValue.Clockwise_Positive
             : InvertedValue.CounterClockwise_Positive;
-    tryUntilOk(5, () -> turnTalon.getConfigurator().apply(turnConfig, 0.25));
+    String turnName = "TalonFXS_" + constants.SteerMotorId;
+    var turnReadback = new TalonFXSConfiguration();
+    DeviceConfigurator.configure(
+        turnName,
+        5,
+        ConfigFingerprints.MAX_CALLS_PER_ATTEMPT * 0.25,
+        ConfigFingerprints.applyIfChanged(
+            turnName,
+            turnConfig,
+            () -> turnTalon.getConfigurator().apply(turnConfig, 0.25),
+            turnReadback,
+            () -> turnTalon.getConfigurator().refresh(turnReadback, 0.25)));
 
     // Configure CANdi
     CANdiConfiguration candiConfig = constants.EncoderInitialConfigs;
     candiConfig.PWM1.AbsoluteSensorOffset = constants.EncoderOffset;
     candiConfig.PWM1.SensorDirection = constants.EncoderInverted;
-    candi.getConfigurator().apply(candiConfig);
-
-    // Create timestamp queue
-    timestampQueue = PhoenixOdometryThread.getInstance().makeTimestampQueue();
+    String candiName = "CANdi_" + constants.EncoderId;
+    var candiReadback = new CANdiConfiguration();
+    DeviceConfigurator.configure(
+        candiName,
+        5,
+        ConfigFingerprints.MAX_CALLS_PER_ATTEMPT * 0.25,
+        ConfigFingerprints.applyIfChanged(
+            candiName,
+            candiConfig,
+            () -> candi.getConfigurator().apply(candiConfig, 0.25),
+            candiReadback,
+            () -> candi.getConfigurator().refresh(candiReadback, 0.25)));
 
     // Create drive status signals
     drivePosition = driveTalon.getPosition();
@@ -172,80 +232,135 @@ public class ModuleIOTalonFXS implements ModuleIO {
     turnAppliedVolts = turnTalon.getMotorVoltage();
     turnCurrent = turnTalon.getStatorCurrent();
 
-    // Configure periodic frames
-    BaseStatusSignal.setUpdateFrequencyForAll(
-        Drive.ODOMETRY_FREQUENCY, drivePosition, turnPosition);
-    BaseStatusSignal.setUpdateFrequencyForAll(
-        50.0,
-        driveVelocity,
+    // Create timestamp queue from the capture times of the odometry signals
+    timestampQueue =
+        PhoenixOdometryThread.getInstance()
+            .makeTimestampQueue(drivePositionQueue, turnPositionQueue);
+    odometryReader =
+        new ModuleOdometryReader(
+            new OdometryQueues(timestampQueue, drivePositionQueue, turnPositionQueue));
+
+    // Request periodic frames, applied by the drivetrain against the bus budget
+    var planner = StatusFrequencyPlanner.getInstance();
+    var bus = TunerConstants.kCANBus;
+    planner.register(
+        bus,
+        driveTalon,
+        Priority.ODOMETRY,
+        Drive.ODOMETRY_FREQUENCY,
+        Drive.ODOMETRY_FREQUENCY,
+        drivePosition);
+    planner.register(
+        bus,
+        turnTalon,
+        Priority.ODOMETRY,
+        Drive.ODOMETRY_FREQUENCY,
+        Drive.ODOMETRY_FREQUENCY,
+        turnPosition);
+    planner.register(
+        bus, driveTalon, Priority.FEEDBACK, FEEDBACK_MIN_HZ, STATUS_MAX_HZ, driveVelocity);
+    planner.register(
+        bus, turnTalon, Priority.FEEDBACK, FEEDBACK_MIN_HZ, STATUS_MAX_HZ, turnVelocity);
+    planner.register(
+        bus,
+        driveTalon,
+        Priority.TELEMETRY,
+        TELEMETRY_MIN_HZ,
+        STATUS_MAX_HZ,
         driveAppliedVolts,
-        driveCurrent,
-        turnAbsolutePosition,
-        turnVelocity,
+        driveCurrent);
+    planner.register(
+        bus,
+        turnTalon,
+        Priority.TELEMETRY,
+        TELEMETRY_MIN_HZ,
+        STATUS_MAX_HZ,
         turnAppliedVolts,
         turnCurrent);
-    ParentDevice.optimizeBusUtilizationForAll(driveTalon, turnTalon);
+    // The encoder is not optimized, since the turn motor may use it as a remote sensor
+    planner.register(
+        bus, null, Priority.TELEMETRY, TELEMETRY_MIN_HZ, STATUS_MAX_HZ, turnAbsolutePosition);
+
+    // Register signals to be refreshed with the rest of the drivetrain
+    var registry = PhoenixSignalRegistry.getInstance();
+    driveSignals = registry.register(drivePosition, driveVelocity, driveAppliedVolts, driveCurrent);
+    turnSignals = registry.register(turnPosition, turnVelocity, turnAppliedVolts, turnCurrent);
+    turnEncoderSignals = registry.register(turnAbsolutePosition);
+    signalHealth =
+        new SignalHealth(
+            drivePosition,
+            driveVelocity,
+            driveAppliedVolts,
+            driveCurrent,
+            turnPosition,
+            turnVelocity,
+            turnAppliedVolts,
+            turnCurrent,
+            turnAbsolutePosition);
   }
 
   @Override
-  public void updateInputs(ModuleIOInputs inputs) {
-    // Refresh all signals
-    var driveStatus =
-        BaseStatusSignal.refreshAll(drivePosition, driveVelocity, driveAppliedVolts, driveCurrent);
-    var turnStatus =
-        BaseStatusSignal.refreshAll(turnPosition, turnVelocity, turnAppliedVolts, turnCurrent);
-    var turnEncoderStatus = BaseStatusSignal.refreshAll(turnAbsolutePosition);
+  public OdometryQueues getOdometryQueues() {
+    return odometryReader.getQueues();
+  }
 
+  @Override
+  public void updateInputs(ModuleIOInputs inputs) {
+    // Signals were refreshed by the drivetrain at the start of the loop
     // Update drive inputs
-    inputs.driveConnected = driveConnectedDebounce.calculate(driveStatus.isOK());
+    inputs.driveConnected = driveConnectedDebounce.calculate(driveSignals.isOK());
     inputs.drivePositionRad = Units.rotationsToRadians(drivePosition.getValueAsDouble());
     inputs.driveVelocityRadPerSec = Units.rotationsToRadians(driveVelocity.getValueAsDouble());
     inputs.driveAppliedVolts = driveAppliedVolts.getValueAsDouble();
     inputs.driveCurrentAmps = driveCurrent.getValueAsDouble();
 
     // Update turn inputs
-    inputs.turnConnected = turnConnectedDebounce.calculate(turnStatus.isOK());
-    inputs.turnEncoderConnected = turnEncoderConnectedDebounce.calculate(turnEncoderStatus.isOK());
+    inputs.turnConnected = turnConnectedDebounce.calculate(turnSignals.isOK());
+    inputs.turnEncoderConnected = turnEncoderConnectedDebounce.calculate(turnEncoderSignals.isOK());
     inputs.turnAbsolutePosition = Rotation2d.fromRotations(turnAbsolutePosition.getValueAsDouble());
     inputs.turnPosition = Rotation2d.fromRotations(turnPosition.getValueAsDouble());
     inputs.turnVelocityRadPerSec = Units.rotationsToRadians(turnVelocity.getValueAsDouble());
     inputs.turnAppliedVolts = turnAppliedVolts.getValueAsDouble();
     inputs.turnCurrentAmps = turnCurrent.getValueAsDouble();
 
+    // Update signal health
+    signalHealth.update();
+    inputs.signalAgesMs = signalHealth.getAgesMs();
+    inputs.signalRatesHz = signalHealth.getRatesHz();
+    inputs.signalErrorCounts = signalHealth.getErrorCounts();
+    inputs.signalStatusCodes = signalHealth.getStatusCodes();
+
     // Update odometry inputs
-    inputs.odometryTimestamps =
-        timestampQueue.stream().mapToDouble((Double value) -> value).toArray();
-    inputs.odometryDrivePositionsRad =
-        drivePositionQueue.stream()
-            .mapToDouble((Double value) -> Units.rotationsToRadians(value))
-            .toArray();
-    inputs.odometryTurnPositions =
-        turnPositionQueue.stream()
-            .map((Double value) -> Rotation2d.fromRotations(value))
-            .toArray(Rotation2d[]::new);
-    timestampQueue.clear();
-    drivePositionQueue.clear();
-    turnPositionQueue.clear();
+    odometryReader.read(inputs);
   }
 
   @Override
   public void setDriveOpenLoop(double output) {
-    driveTalon.setControl(voltageRequest.withOutput(output));
+    if (driveControl.shouldSend(CONTROL_OPEN_LOOP, output, Timer.getFPGATimestamp())) {
+      driveTalon.setControl(voltageRequest.withOutput(output));
+    }
   }
 
   @Override
   public void setTurnOpenLoop(double output) {
-    turnTalon.setControl(voltageRequest.withOutput(output));
+    if (turnControl.shouldSend(CONTROL_OPEN_LOOP, output, Timer.getFPGATimestamp())) {
+      turnTalon.setControl(voltageRequest.withOutput(output));
+    }
   }
 
   @Override
   public void setDriveVelocity(double velocityRadPerSec) {
     double velocityRotPerSec = Units.radiansToRotations(velocityRadPerSec);
-    driveTalon.setControl(velocityVoltageRequest.withVelocity(velocityRotPerSec));
+    if (driveControl.shouldSend(CONTROL_CLOSED_LOOP, velocityRotPerSec, Timer.getFPGATimestamp())) {
+      driveTalon.setControl(velocityVoltageRequest.withVelocity(velocityRotPerSec));
+    }
   }
 
   @Override
   public void setTurnPosition(Rotation2d rotation) {
-    turnTalon.setControl(positionVoltageRequest.withPosition(rotation.getRotations()));
+    double positionRot = rotation.getRotations();
+    if (turnControl.shouldSend(CONTROL_CLOSED_LOOP, positionRot, Timer.getFPGATimestamp())) {
+      turnTalon.setControl(positionVoltageRequest.withPosition(positionRot));
+    }
   }
 }
\ No newline at end of file
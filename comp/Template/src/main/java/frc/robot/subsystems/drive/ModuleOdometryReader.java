@@ -0,0 +1,61 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package frc.robot.subsystems.drive;
+
+import edu.wpi.first.math.util.Units;
+import java.util.Arrays;
+
+/**
+ * Drains the odometry queues of one module into its inputs, converting the positions from rotations
+ * to radians. Used by the module IOs sampled by {@link PhoenixOdometryThread} and by the odometry
+ * benchmark, so the benchmark measures the same code that runs on the robot.
+ */
+public class ModuleOdometryReader {
+  private final ModuleIO.OdometryQueues queues;
+
+  // Scratch buffers for draining the queues, never logged
+  private final double[] timestampBuffer;
+  private final double[] drivePositionBuffer;
+  private final double[] turnPositionBuffer;
+
+  /**
+   * Creates a new reader.
+   *
+   * @param queues The odometry queues of the module.
+   */
+  public ModuleOdometryReader(ModuleIO.OdometryQueues queues) {
+    this.queues = queues;
+    timestampBuffer = new double[queues.timestamps().capacity()];
+    drivePositionBuffer = new double[queues.drivePositionsRot().capacity()];
+    turnPositionBuffer = new double[queues.turnPositionsRot().capacity()];
+  }
+
+  /** Returns the odometry queues of the module. */
+  public ModuleIO.OdometryQueues getQueues() {
+    return queues;
+  }
+
+  /**
+   * Moves the available samples into the odometry inputs. The inputs get new arrays of the exact
+   * sample count, since logged arrays are kept by reference until the receivers write them.
+   *
+   * @param inputs The inputs to update.
+   */
+  public void read(ModuleIO.ModuleIOInputs inputs) {
+    int sampleCount = queues.timestamps().drainTo(timestampBuffer);
+    sampleCount = Math.min(sampleCount, queues.drivePositionsRot().drainTo(drivePositionBuffer));
+    sampleCount = Math.min(sampleCount, queues.turnPositionsRot().drainTo(turnPositionBuffer));
+    inputs.odometryTimestamps = Arrays.copyOf(timestampBuffer, sampleCount);
+    inputs.odometryDrivePositionsRad = new double[sampleCount];
+    inputs.odometryTurnPositions = new double[sampleCount];
+    for (int i = 0; i < sampleCount; i++) {
+      inputs.odometryDrivePositionsRad[i] = Units.rotationsToRadians(drivePositionBuffer[i]);
+      inputs.odometryTurnPositions[i] = Units.rotationsToRadians(turnPositionBuffer[i]);
+    }
+  }
+}
@@ -0,0 +1,163 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package frc.robot.subsystems.drive;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Translation2d;
+
+/**
+ * Steps through the odometry samples received each cycle, pairing the module positions with the
+ * robot yaw at the same instant. The yaw comes from the gyro when it is connected (interpolated to
+ * the module sample times) and from the module deltas otherwise.
+ *
+ * <p>Each module has its own timestamps, taken from the device time of its signals. The modules on
+ * a bus are sampled in the same batch, so their timestamps differ only by the skew between devices,
+ * and each sample is integrated at the mean of the module timestamps. {@link HighRateOdometry}
+ * combines the timestamps the same way, so the two can be matched exactly.
+ *
+ * <p>Nothing is allocated per sample: samples are read from primitive arrays, module positions are
+ * written into reused arrays and the yaw is tracked as a primitive, so the loop can run at the full
+ * odometry rate without feeding the garbage collector.
+ */
+public class OdometryIntegrator {
+  /** Receives each integrated sample. */
+  @FunctionalInterface
+  public interface SampleConsumer {
+    /**
+     * Accepts one sample. The arrays are reused for the next sample, so they must be copied if
+     * kept.
+     *
+     * @param timestamp The sample timestamp in seconds.
+     * @param yawRad The robot yaw at the sample time in radians (not wrapped).
+     * @param distancesMeters The drive distance of each module at the sample time.
+     * @param moduleCos The cosine of each module angle at the sample time.
+     * @param moduleSin The sine of each module angle at the sample time.
+     */
+    void accept(
+        double timestamp,
+        double yawRad,
+        double[] distancesMeters,
+        double[] moduleCos,
+        double[] moduleSin);
+  }
+
+  private final int moduleCount;
+  private final PrimitiveSwerveKinematics kinematics;
+
+  private final double[] deltasMeters;
+  private final double[] cos;
+  private final double[] sin;
+  private final double[] twist = new double[3];
+  private final double[] lastDistancesMeters;
+  private double yawRad = 0.0;
+  private double latestTimestamp = Double.NaN;
+  private double lastGyroTimestamp = Double.NEGATIVE_INFINITY;
+  private double lastGyroYawRad = 0.0;
+
+  /**
+   * Creates a new integrator.
+   *
+   * @param moduleTranslations The locations of the modules relative to the robot center.
+   */
+  public OdometryIntegrator(Translation2d... moduleTranslations) {
+    moduleCount = moduleTranslations.length;
+    kinematics = new PrimitiveSwerveKinematics(moduleTranslations);
+    lastDistancesMeters = new double[moduleCount];
+    deltasMeters = new double[moduleCount];
+    cos = new double[moduleCount];
+    sin = new double[moduleCount];
+  }
+
+  /**
+   * Integrates the samples received this cycle, calling the consumer once per sample in order.
+   *
+   * @param timestamps The sample timestamps of each module.
+   * @param sampleCount The number of samples to integrate, at most the length of the shortest
+   *     timestamp array.
+   * @param drivePositionsMeters The drive position samples of each module.
+   * @param turnPositionsRad The turn angle samples of each module in radians.
+   * @param gyroConnected Whether to use the gyro rather than the module deltas for the yaw.
+   * @param gyroTimestamps The gyro sample timestamps.
+   * @param gyroYawsRad The gyro yaw samples in radians.
+   * @param consumer Receives each sample.
+   */
+  public void integrate(
+      double[][] timestamps,
+      int sampleCount,
+      double[][] drivePositionsMeters,
+      double[][] turnPositionsRad,
+      boolean gyroConnected,
+      double[] gyroTimestamps,
+      double[] gyroYawsRad,
+      SampleConsumer consumer) {
+    for (int i = 0; i < sampleCount; i++) {
+      // Read wheel positions and deltas from each module, and combine the module timestamps
+      double timestampSum = 0.0;
+      for (int module = 0; module < moduleCount; module++) {
+        timestampSum += timestamps[module][i];
+        double distance = drivePositionsMeters[module][i];
+        double angle = turnPositionsRad[module][i];
+        deltasMeters[module] = distance - lastDistancesMeters[module];
+        cos[module] = Math.cos(angle);
+        sin[module] = Math.sin(angle);
+        lastDistancesMeters[module] = distance;
+      }
+      double timestamp = timestampSum / moduleCount;
+
+      // Update yaw, using the real gyro angle aligned in time with the module samples if possible
+      if (gyroConnected) {
+        yawRad = getGyroYawAt(timestamp, gyroTimestamps, gyroYawsRad);
+      } else {
+        // Use the angle delta from the kinematics and module deltas
+        kinematics.toTwist2d(deltasMeters, cos, sin, twist);
+        yawRad += twist[2];
+      }
+      consumer.accept(timestamp, yawRad, lastDistancesMeters, cos, sin);
+      latestTimestamp = timestamp;
+    }
+
+    // Save the latest gyro sample for aligning the next cycle's samples
+    if (gyroTimestamps.length > 0) {
+      lastGyroTimestamp = gyroTimestamps[gyroTimestamps.length - 1];
+      lastGyroYawRad = gyroYawsRad[gyroYawsRad.length - 1];
+    }
+  }
+
+  /** Returns the combined timestamp of the latest integrated sample in seconds, or NaN if none. */
+  public double getLatestTimestamp() {
+    return latestTimestamp;
+  }
+
+  /** Returns the yaw of the latest integrated sample in radians. */
+  public double getYawRad() {
+    return yawRad;
+  }
+
+  /**
+   * Returns the gyro yaw at the specified time. The gyro may be sampled on a different bus (and so
+   * at a different rate) than the modules, so its samples are merged with the module samples by
+   * interpolating between the two gyro samples surrounding the timestamp.
+   */
+  private double getGyroYawAt(double timestamp, double[] gyroTimestamps, double[] gyroYawsRad) {
+    double previousTimestamp = lastGyroTimestamp;
+    double previousYaw = lastGyroYawRad;
+    for (int i = 0; i < gyroTimestamps.length; i++) {
+      double yaw = gyroYawsRad[i];
+      if (gyroTimestamps[i] >= timestamp) {
+        if (Double.isInfinite(previousTimestamp) || gyroTimestamps[i] == previousTimestamp) {
+          return yaw;
+        }
+        double t = (timestamp - previousTimestamp) / (gyroTimestamps[i] - previousTimestamp);
+        return previousYaw + MathUtil.angleModulus(yaw - previousYaw) * MathUtil.clamp(t, 0, 1);
+      }
+      previousTimestamp = gyroTimestamps[i];
+      previousYaw = yaw;
+    }
+    return previousYaw; // Newer than every gyro sample, hold the latest
+  }
+}
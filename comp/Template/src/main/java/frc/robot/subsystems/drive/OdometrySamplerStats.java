@@ -0,0 +1,110 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package frc.robot.subsystems.drive;
+
+import frc.robot.util.DoubleRingBuffer;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Measures how the odometry sampler actually behaves: the interval between wake-ups, the largest
+ * gap between samples, how long each batch holds the sample queues, and how many samples each
+ * queue dropped. Recorded from the sampling thread and published from the main loop.
+ */
+public class OdometrySamplerStats {
+  /**
+   * Upper edges of the period histogram buckets, as multiples of the nominal sample period. The
+   * last bucket collects everything above the final edge.
+   */
+  public static final double[] PERIOD_BUCKET_EDGES = {0.5, 0.9, 1.1, 1.5, 2.0, 4.0};
+
+  private final String key;
+  private final double nominalPeriodNanos;
+
+  // Written by the sampling thread, reset by the main loop
+  private final AtomicLongArray periodHistogram =
+      new AtomicLongArray(PERIOD_BUCKET_EDGES.length + 1);
+  private final AtomicLong maxGapNanos = new AtomicLong();
+  private final AtomicLong sampleCount = new AtomicLong();
+  private final AtomicLong lockHoldNanos = new AtomicLong();
+  private final AtomicLong lockHoldCount = new AtomicLong();
+  private final AtomicLong maxLockHoldNanos = new AtomicLong();
+  private long lastWakeNanos = 0; // Only accessed by the sampling thread
+
+  // Only accessed by the main loop
+  private long lastPublishNanos = System.nanoTime();
+
+  /**
+   * Creates a new stats tracker.
+   *
+   * @param key Log key prefix for the published summary.
+   * @param nominalFrequencyHz The configured sample rate.
+   */
+  public OdometrySamplerStats(String key, double nominalFrequencyHz) {
+    this.key = key;
+    this.nominalPeriodNanos = 1e9 / nominalFrequencyHz;
+  }
+
+  /** Records a sampler wake-up. Must only be called from the sampling thread. */
+  public void recordWake(long wakeNanos) {
+    if (lastWakeNanos != 0) {
+      long period = wakeNanos - lastWakeNanos;
+      double ratio = period / nominalPeriodNanos;
+      int bucket = 0;
+      while (bucket < PERIOD_BUCKET_EDGES.length && ratio > PERIOD_BUCKET_EDGES[bucket]) {
+        bucket++;
+      }
+      periodHistogram.incrementAndGet(bucket);
+      maxGapNanos.accumulateAndGet(period, Math::max);
+    }
+    lastWakeNanos = wakeNanos;
+    sampleCount.incrementAndGet();
+  }
+
+  /** Records the time spent writing one batch to the queues. */
+  public void recordLockHold(long nanos) {
+    lockHoldNanos.addAndGet(nanos);
+    lockHoldCount.incrementAndGet();
+    maxLockHoldNanos.accumulateAndGet(nanos, Math::max);
+  }
+
+  /**
+   * Publishes a summary of the samples recorded since the last call and resets the interval
+   * statistics. Must only be called from the main loop.
+   *
+   * @param queues Queues whose cumulative dropped sample counts are published, in order.
+   */
+  public void publish(List<DoubleRingBuffer> queues) {
+    long now = System.nanoTime();
+    double intervalSecs = (now - lastPublishNanos) / 1e9;
+    lastPublishNanos = now;
+
+    // Arrays are handed to the logger, so they are not reused between calls
+    long[] histogram = new long[periodHistogram.length()];
+    for (int i = 0; i < histogram.length; i++) {
+      histogram[i] = periodHistogram.getAndSet(i, 0);
+    }
+    long[] dropped = new long[queues.size()];
+    for (int i = 0; i < dropped.length; i++) {
+      dropped[i] = queues.get(i).getDroppedCount();
+    }
+    long samples = sampleCount.getAndSet(0);
+    long lockHolds = lockHoldCount.getAndSet(0);
+
+    Logger.recordOutput(
+        key + "/MeasuredFrequency", intervalSecs > 0 ? samples / intervalSecs : 0.0);
+    Logger.recordOutput(key + "/PeriodHistogram", histogram);
+    Logger.recordOutput(key + "/MaxGapMs", maxGapNanos.getAndSet(0) / 1e6);
+    Logger.recordOutput(
+        key + "/LockHoldMs", lockHolds > 0 ? lockHoldNanos.getAndSet(0) / 1e6 / lockHolds : 0.0);
+    Logger.recordOutput(key + "/MaxLockHoldMs", maxLockHoldNanos.getAndSet(0) / 1e6);
+    Logger.recordOutput(key + "/DroppedSamples", dropped);
+  }
+}
@@ -8,40 +8,56 @@
 package frc.robot.subsystems.drive;
 
 import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.CANBus;
 import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.Utils;
 import edu.wpi.first.units.measure.Angle;
 import edu.wpi.first.wpilibj.RobotController;
 import frc.robot.generated.TunerConstants;
+import frc.robot.util.DoubleRingBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Queue;
-import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.DoubleSupplier;
+import org.bobcatrobotics.Util.ManagedThread;
+import org.littletonrobotics.junction.Logger;
 
 /**
  * Provides an interface for asynchronously reading high-frequency measurements
- * to a set of queues.
+ * to a set of primitive ring buffers.
  *
  * <p>
  * This version is intended for Phoenix 6 devices on both the RIO and CANivore
- * buses. When using
- * a CANivore, the thread uses the "waitForAll" blocking method to enable more
- * consistent sampling.
- * This also allows Phoenix Pro users to benefit from lower latency between
- * devices using CANivore
- * time synchronization.
+ * buses. Each bus is sampled by its own thread at the best rate that bus
+ * supports. On a CAN FD bus (CANivore) the thread uses the "waitForAll"
+ * blocking method to enable more consistent sampling. This also allows Phoenix
+ * Pro users to benefit from lower latency between devices using CANivore time
+ * synchronization. Generic (non-Phoenix) signals are sampled by separate
+ * threads at their own rates and stamped with the time they were read. Every
+ * sample is stamped in the FPGA timebase, so samples from different buses and
+ * sensors can be merged by time.
+ *
+ * <p>
+ * Samples are handed to the main loop without locking. Each thread writes each
+ * batch of samples inside a sequence lock, and {@link #beginRead()} retries its
+ * snapshot of the queues if a batch was being written at the same time, so the
+ * samplers never wait on the main loop.
  */
-public class PhoenixOdometryThread extends Thread {
-  private final Lock signalsLock = new ReentrantLock(); // Prevents conflicts when registering signals
-  private BaseStatusSignal[] phoenixSignals = new BaseStatusSignal[0];
-  private final List<DoubleSupplier> genericSignals = new ArrayList<>();
-  private final List<Queue<Double>> phoenixQueues = new ArrayList<>();
-  private final List<Queue<Double>> genericQueues = new ArrayList<>();
-  private final List<Queue<Double>> timestampQueues = new ArrayList<>();
-
-  private static boolean isCANFD = TunerConstants.kCANBus.isNetworkFD();
+public class PhoenixOdometryThread {
+  /** Number of samples each queue can hold before new samples are dropped. */
+  public static final int QUEUE_CAPACITY = 20;
+
+  /**
+   * Real-time priority of the sampling threads (0 for a normal thread). Any real-time priority
+   * preempts the main robot loop and the garbage collector, so the samplers keep their deadlines
+   * under load.
+   */
+  public static final int THREAD_PRIORITY = 1;
+
+  private final List<BusSampler> samplers = new ArrayList<>();
+
   private static PhoenixOdometryThread instance = null;
 
   public static PhoenixOdometryThread getInstance() {
@@ -51,114 +67,371 @@ public class PhoenixOdometryThread extends Thread {
     return instance;
   }
 
-  private PhoenixOdometryThread() {
-    setName("PhoenixOdometryThread");
-    setDaemon(true);
-  }
+  private PhoenixOdometryThread() {}
 
-  @Override
+  /** Starts a sampling thread for each bus with registered queues. */
   public void start() {
-    if (timestampQueues.size() > 0) {
-      super.start();
+    for (BusSampler sampler : samplers) {
+      if (sampler.timestampQueues.size() > 0 && sampler.worker == null) {
+        sampler.worker =
+            ManagedThread.start(
+                "PhoenixOdometryThread_" + sampler.name,
+                THREAD_PRIORITY,
+                1.0 / sampler.frequency,
+                sampler);
+      }
+    }
+  }
+
+  /** Registers a Phoenix signal on the drivetrain CAN bus to be read from the thread. */
+  public DoubleRingBuffer registerSignal(StatusSignal<Angle> signal) {
+    return registerSignal(TunerConstants.kCANBus, signal);
+  }
+
+  /** Registers a Phoenix signal on the specified CAN bus to be read from the thread. */
+  public DoubleRingBuffer registerSignal(CANBus bus, StatusSignal<Angle> signal) {
+    return getSampler(bus).registerSignal(signal);
+  }
+
+  /** Registers a generic signal to be read from a thread at the drivetrain odometry rate. */
+  public DoubleRingBuffer registerSignal(DoubleSupplier signal) {
+    return registerSignal(signal, Drive.ODOMETRY_FREQUENCY);
+  }
+
+  /**
+   * Registers a generic signal to be read from a thread at the specified rate. Generic signals
+   * with the same rate share a thread, independent of any CAN bus, and each sample is stamped with
+   * the time that signal was read.
+   */
+  public DoubleRingBuffer registerSignal(DoubleSupplier signal, double frequencyHz) {
+    return getGenericSampler(frequencyHz).registerSignal(signal);
+  }
+
+  /**
+   * Returns a new queue that returns timestamp values for each sample, averaged across all
+   * registered Phoenix signals on the drivetrain CAN bus.
+   */
+  public DoubleRingBuffer makeTimestampQueue() {
+    return getSampler(TunerConstants.kCANBus).makeTimestampQueue(new DoubleRingBuffer[0]);
+  }
+
+  /**
+   * Returns a new queue that returns timestamp values for each sample, using the capture times of
+   * the signals feeding the specified queues. Queues for generic signals use the time each signal
+   * was read. All queues must be sampled by the same thread.
+   *
+   * @param sampledWith Queues returned by {@link #registerSignal} whose capture times are averaged.
+   */
+  public DoubleRingBuffer makeTimestampQueue(DoubleRingBuffer... sampledWith) {
+    if (sampledWith.length == 0) {
+      return makeTimestampQueue();
+    }
+    for (BusSampler sampler : samplers) {
+      if (sampler.allQueues.contains(sampledWith[0])) {
+        return sampler.makeTimestampQueue(sampledWith);
+      }
     }
+    throw new IllegalArgumentException("Queue was not registered with the odometry thread");
   }
 
-  /** Registers a Phoenix signal to be read from the thread. */
-  public Queue<Double> registerSignal(StatusSignal<Angle> signal) {
-    Queue<Double> queue = new ArrayBlockingQueue<>(20);
-    signalsLock.lock();
-    Drive.odometryLock.lock();
-    try {
-      BaseStatusSignal[] newSignals = new BaseStatusSignal[phoenixSignals.length + 1];
-      System.arraycopy(phoenixSignals, 0, newSignals, 0, phoenixSignals.length);
-      newSignals[phoenixSignals.length] = signal;
-      phoenixSignals = newSignals;
-      phoenixQueues.add(queue);
-    } finally {
-      signalsLock.unlock();
-      Drive.odometryLock.unlock();
+  /**
+   * Runs a listener on the sampling thread each time a batch is written, after the batch is in the
+   * queues. The listener may read the new samples with {@link DoubleRingBuffer#getLastOffered()}.
+   * Listeners run at the sampling rate and at real-time priority, so they must be short and must
+   * not block.
+   *
+   * @param listener The listener to run.
+   * @param sampledWith Queues returned by this class that the listener reads. All queues must be
+   *     sampled by the same thread.
+   */
+  public void addBatchListener(Runnable listener, DoubleRingBuffer... sampledWith) {
+    for (BusSampler sampler : samplers) {
+      if (sampler.allQueues.containsAll(Arrays.asList(sampledWith))) {
+        sampler.addBatchListener(listener);
+        return;
+      }
     }
-    return queue;
+    throw new IllegalArgumentException("Listener queues must be sampled by the same thread");
   }
 
-  /** Registers a generic signal to be read from the thread. */
-  public Queue<Double> registerSignal(DoubleSupplier signal) {
-    Queue<Double> queue = new ArrayBlockingQueue<>(20);
-    signalsLock.lock();
-    Drive.odometryLock.lock();
-    try {
-      genericSignals.add(signal);
-      genericQueues.add(queue);
-    } finally {
-      signalsLock.unlock();
-      Drive.odometryLock.unlock();
+  /**
+   * Pins a consistent set of samples in every queue so the IO implementations drain the same
+   * batches, and publishes handoff and sampler statistics. Must be called from the main loop before
+   * updating odometry inputs. Never blocks the sampling threads; if a batch is being written, the
+   * snapshot is simply retried.
+   */
+  public void beginRead() {
+    for (int i = 0; i < samplers.size(); i++) {
+      samplers.get(i).beginRead();
     }
-    return queue;
   }
 
-  /** Returns a new queue that returns timestamp values for each sample. */
-  public Queue<Double> makeTimestampQueue() {
-    Queue<Double> queue = new ArrayBlockingQueue<>(20);
-    Drive.odometryLock.lock();
-    try {
-      timestampQueues.add(queue);
-    } finally {
-      Drive.odometryLock.unlock();
+  /** Returns the sampler for the specified bus, creating it if necessary. */
+  private BusSampler getSampler(CANBus bus) {
+    String name = "Bus_" + (bus.getName().isEmpty() ? "rio" : bus.getName());
+    return getSampler(name, bus.isNetworkFD(), Drive.getOdometryFrequency(bus.isNetworkFD()));
+  }
+
+  /** Returns the sampler for generic signals at the specified rate, creating it if necessary. */
+  private BusSampler getGenericSampler(double frequencyHz) {
+    return getSampler("Generic_" + Math.round(frequencyHz) + "Hz", false, frequencyHz);
+  }
+
+  private BusSampler getSampler(String name, boolean isCANFD, double frequency) {
+    for (BusSampler sampler : samplers) {
+      if (sampler.name.equals(name)) {
+        return sampler;
+      }
     }
-    return queue;
+    BusSampler sampler = new BusSampler(name, isCANFD, frequency);
+    samplers.add(sampler);
+    return sampler;
   }
 
-  @Override
-  public void run() {
-    while (true) {
-      // Wait for updates from all signals
+  /** Samples every signal registered on a single CAN bus, or generic signals at one rate. */
+  private static class BusSampler implements Runnable {
+    private final String name;
+    private final boolean isCANFD;
+    private final double frequency;
+    private final String logKey;
+    private ManagedThread worker = null;
+
+    private final Lock signalsLock = new ReentrantLock(); // Prevents conflicts when registering
+    private BaseStatusSignal[] phoenixSignals = new BaseStatusSignal[0];
+    private double[] phoenixTimestamps = new double[0]; // Capture times in the FPGA timebase
+    private DoubleSupplier[] genericSignals = new DoubleSupplier[0];
+    private double[] genericValues = new double[0];
+    private double[] genericTimestamps = new double[0]; // Read times in the FPGA timebase
+    private final List<DoubleRingBuffer> phoenixQueues = new ArrayList<>();
+    private final List<DoubleRingBuffer> genericQueues = new ArrayList<>();
+    private final List<DoubleRingBuffer> timestampQueues = new ArrayList<>();
+    // Phoenix signal indices, or -1 - index for generic signals
+    private final List<int[]> timestampSources = new ArrayList<>();
+    private final List<DoubleRingBuffer> allQueues = new ArrayList<>();
+    private Runnable[] batchListeners = new Runnable[0];
+
+    // Odd while the thread is writing a batch, even otherwise
+    private volatile long batchSequence = 0;
+    private volatile long droppedBatches = 0;
+    private long contendedReads = 0;
+    private long readRetries = 0;
+    private final OdometrySamplerStats stats;
+
+    private BusSampler(String name, boolean isCANFD, double frequency) {
+      this.name = name;
+      this.isCANFD = isCANFD;
+      this.frequency = frequency;
+      logKey = "Odometry/" + name;
+      stats = new OdometrySamplerStats(logKey + "/Sampler", frequency);
+    }
+
+    private DoubleRingBuffer registerSignal(StatusSignal<Angle> signal) {
+      DoubleRingBuffer queue = new DoubleRingBuffer(QUEUE_CAPACITY);
+      signalsLock.lock();
+      try {
+        BaseStatusSignal[] newSignals = new BaseStatusSignal[phoenixSignals.length + 1];
+        System.arraycopy(phoenixSignals, 0, newSignals, 0, phoenixSignals.length);
+        newSignals[phoenixSignals.length] = signal;
+        phoenixSignals = newSignals;
+        phoenixTimestamps = new double[newSignals.length];
+        phoenixQueues.add(queue);
+        allQueues.add(queue);
+      } finally {
+        signalsLock.unlock();
+      }
+      return queue;
+    }
+
+    private DoubleRingBuffer registerSignal(DoubleSupplier signal) {
+      DoubleRingBuffer queue = new DoubleRingBuffer(QUEUE_CAPACITY);
+      signalsLock.lock();
+      try {
+        DoubleSupplier[] newSignals = Arrays.copyOf(genericSignals, genericSignals.length + 1);
+        newSignals[genericSignals.length] = signal;
+        genericSignals = newSignals;
+        genericValues = new double[newSignals.length];
+        genericTimestamps = new double[newSignals.length];
+        genericQueues.add(queue);
+        allQueues.add(queue);
+      } finally {
+        signalsLock.unlock();
+      }
+      return queue;
+    }
+
+    private DoubleRingBuffer makeTimestampQueue(DoubleRingBuffer[] sampledWith) {
+      DoubleRingBuffer queue = new DoubleRingBuffer(QUEUE_CAPACITY);
       signalsLock.lock();
       try {
-        if (isCANFD && phoenixSignals.length > 0) {
-          BaseStatusSignal.waitForAll(2.0 / Drive.ODOMETRY_FREQUENCY, phoenixSignals);
+        int[] sources;
+        if (sampledWith.length == 0) {
+          sources = null;
         } else {
-          // "waitForAll" does not support blocking on multiple signals with a bus
-          // that is not CAN FD, regardless of Pro licensing. No reasoning for this
-          // behavior is provided by the documentation.
-          Thread.sleep((long) (1000.0 / Drive.ODOMETRY_FREQUENCY));
-          if (phoenixSignals.length > 0) {
-            BaseStatusSignal.refreshAll(phoenixSignals);
+          sources = new int[sampledWith.length];
+          for (int i = 0; i < sampledWith.length; i++) {
+            int phoenixIndex = phoenixQueues.indexOf(sampledWith[i]);
+            int genericIndex = genericQueues.indexOf(sampledWith[i]);
+            if (phoenixIndex < 0 && genericIndex < 0) {
+              throw new IllegalArgumentException(
+                  "Timestamp queue sources must be sampled by the same thread");
+            }
+            sources[i] = phoenixIndex >= 0 ? phoenixIndex : -1 - genericIndex;
           }
         }
-      } catch (InterruptedException e) {
-        e.printStackTrace();
+        timestampQueues.add(queue);
+        timestampSources.add(sources);
+        allQueues.add(queue);
       } finally {
         signalsLock.unlock();
       }
+      return queue;
+    }
 
-      // Save new data to queues
-      Drive.odometryLock.lock();
+    private void addBatchListener(Runnable listener) {
+      signalsLock.lock();
       try {
-        // Sample timestamp is current FPGA time minus average CAN latency
-        // Default timestamps from Phoenix are NOT compatible with
-        // FPGA timestamps, this solution is imperfect but close
-        double timestamp = RobotController.getFPGATime() / 1e6;
-        double totalLatency = 0.0;
-        for (BaseStatusSignal signal : phoenixSignals) {
-          totalLatency += signal.getTimestamp().getLatency();
-        }
-        if (phoenixSignals.length > 0) {
-          timestamp -= totalLatency / phoenixSignals.length;
-        }
+        Runnable[] newListeners = Arrays.copyOf(batchListeners, batchListeners.length + 1);
+        newListeners[batchListeners.length] = listener;
+        batchListeners = newListeners;
+      } finally {
+        signalsLock.unlock();
+      }
+    }
 
-        // Add new samples to queues
-        for (int i = 0; i < phoenixSignals.length; i++) {
-          phoenixQueues.get(i).offer(phoenixSignals[i].getValueAsDouble());
-        }
-        for (int i = 0; i < genericSignals.size(); i++) {
-          genericQueues.get(i).offer(genericSignals.get(i).getAsDouble());
+    private void beginRead() {
+      int retries = 0;
+      while (true) {
+        long sequence = batchSequence;
+        if ((sequence & 1) == 0) {
+          for (int i = 0; i < allQueues.size(); i++) {
+            allQueues.get(i).snapshot();
+          }
+          if (batchSequence == sequence) {
+            break;
+          }
         }
-        for (int i = 0; i < timestampQueues.size(); i++) {
-          timestampQueues.get(i).offer(timestamp);
+        retries++;
+        Thread.onSpinWait();
+      }
+
+      // Log handoff statistics
+      if (retries > 0) {
+        contendedReads++;
+        readRetries += retries;
+      }
+      Logger.recordOutput(logKey + "/Handoff/ContendedReads", contendedReads);
+      Logger.recordOutput(logKey + "/Handoff/ReadRetries", readRetries);
+      Logger.recordOutput(logKey + "/Handoff/DroppedBatches", droppedBatches);
+      stats.publish(allQueues);
+    }
+
+    @Override
+    public void run() {
+      ManagedThread self = ManagedThread.current();
+      while (true) {
+        signalsLock.lock();
+        try {
+          // Wait for updates from all signals
+          if (isCANFD && phoenixSignals.length > 0) {
+            BaseStatusSignal.waitForAll(2.0 / frequency, phoenixSignals);
+
+            // Scheduling latency is the time since the last frame of the batch arrived
+            double lastReceived = Double.NEGATIVE_INFINITY;
+            for (BaseStatusSignal signal : phoenixSignals) {
+              lastReceived =
+                  Math.max(lastReceived, signal.getAllTimestamps().getSystemTimestamp().getTime());
+            }
+            self.recordLatency(
+                (long) (Math.max(0.0, Utils.getCurrentTimeSeconds() - lastReceived) * 1e9));
+          } else {
+            // "waitForAll" does not support blocking on multiple signals with a bus
+            // that is not CAN FD, regardless of Pro licensing. No reasoning for this
+            // behavior is provided by the documentation.
+            long periodNanos = (long) (1e9 / frequency);
+            long intendedWake = System.nanoTime() + periodNanos;
+            Thread.sleep(periodNanos / 1000000, (int) (periodNanos % 1000000));
+            self.recordWake(intendedWake);
+            if (phoenixSignals.length > 0) {
+              BaseStatusSignal.refreshAll(phoenixSignals);
+            }
+          }
+          stats.recordWake(System.nanoTime());
+
+          // Map the capture time of each signal from the Phoenix timebase to the FPGA timebase.
+          // With a CANivore and Phoenix Pro this is the time sync'd device timestamp, otherwise
+          // the time the frame was received.
+          double fpgaTimestamp = RobotController.getFPGATime() / 1e6;
+          double phoenixToFpga = fpgaTimestamp - Utils.getCurrentTimeSeconds();
+          double averageTimestamp = 0.0;
+          for (int i = 0; i < phoenixSignals.length; i++) {
+            phoenixTimestamps[i] =
+                phoenixSignals[i].getAllTimestamps().getBestTimestamp().getTime() + phoenixToFpga;
+            averageTimestamp += phoenixTimestamps[i] / phoenixSignals.length;
+          }
+
+          // Read generic signals, stamping each with the midpoint of its read
+          for (int i = 0; i < genericSignals.length; i++) {
+            long readStart = RobotController.getFPGATime();
+            genericValues[i] = genericSignals[i].getAsDouble();
+            genericTimestamps[i] = (readStart + RobotController.getFPGATime()) / 2e6;
+          }
+          if (phoenixSignals.length == 0) {
+            averageTimestamp = genericSignals.length > 0 ? 0.0 : fpgaTimestamp;
+            for (int i = 0; i < genericSignals.length; i++) {
+              averageTimestamp += genericTimestamps[i] / genericSignals.length;
+            }
+          }
+
+          // Drop the whole batch if any queue is full so that all queues stay aligned
+          boolean hasCapacity = true;
+          for (int i = 0; i < allQueues.size(); i++) {
+            hasCapacity &= allQueues.get(i).hasRemainingCapacity();
+          }
+          if (!hasCapacity) {
+            for (int i = 0; i < allQueues.size(); i++) {
+              allQueues.get(i).recordDrop();
+            }
+            droppedBatches++;
+            continue;
+          }
+
+          // Add new samples to queues
+          long lockStart = System.nanoTime();
+          long sequence = batchSequence;
+          batchSequence = sequence + 1;
+          for (int i = 0; i < phoenixSignals.length; i++) {
+            phoenixQueues.get(i).offer(phoenixSignals[i].getValueAsDouble());
+          }
+          for (int i = 0; i < genericSignals.length; i++) {
+            genericQueues.get(i).offer(genericValues[i]);
+          }
+          for (int i = 0; i < timestampQueues.size(); i++) {
+            timestampQueues.get(i).offer(getTimestamp(timestampSources.get(i), averageTimestamp));
+          }
+          batchSequence = sequence + 2;
+          stats.recordLockHold(System.nanoTime() - lockStart);
+
+          for (int i = 0; i < batchListeners.length; i++) {
+            batchListeners[i].run();
+          }
+        } catch (InterruptedException e) {
+          e.printStackTrace();
+        } finally {
+          signalsLock.unlock();
         }
-      } finally {
-        Drive.odometryLock.unlock();
       }
     }
+
+    /** Returns the average capture time of the specified signals for the current batch. */
+    private double getTimestamp(int[] sources, double averageTimestamp) {
+      if (sources == null) {
+        return averageTimestamp;
+      }
+      double total = 0.0;
+      for (int source : sources) {
+        total += source >= 0 ? phoenixTimestamps[source] : genericTimestamps[-1 - source];
+      }
+      return total / sources.length;
+    }
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,129 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package frc.robot.subsystems.drive;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.CANBus;
+import com.ctre.phoenix6.StatusCode;
+import frc.robot.generated.TunerConstants;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Refreshes the status signals of every drivetrain device with a single call per loop.
+ *
+ * <p>Each call to {@link BaseStatusSignal#refreshAll(BaseStatusSignal...)} crosses into native
+ * code, so refreshing each device separately costs a dozen or more calls per loop. Instead, the
+ * module and gyro IO implementations register their signals here in groups, {@link Drive} calls
+ * {@link #refreshAll()} once at the start of each loop, and the IO implementations read the cached
+ * values and check the status of their groups. Signals are refreshed with one call per CAN bus,
+ * which is a single call when the whole drivetrain is on one bus.
+ */
+public class PhoenixSignalRegistry {
+  private final List<BusSignals> buses = new ArrayList<>();
+
+  private static PhoenixSignalRegistry instance = null;
+
+  public static PhoenixSignalRegistry getInstance() {
+    if (instance == null) {
+      instance = new PhoenixSignalRegistry();
+    }
+    return instance;
+  }
+
+  private PhoenixSignalRegistry() {}
+
+  /**
+   * Registers a group of signals on the drivetrain CAN bus.
+   *
+   * @param signals The signals, normally all from one device.
+   * @return The group, used to check whether the last refresh succeeded.
+   */
+  public SignalGroup register(BaseStatusSignal... signals) {
+    return register(TunerConstants.kCANBus, signals);
+  }
+
+  /**
+   * Registers a group of signals on the specified CAN bus.
+   *
+   * @param bus The bus of the signals.
+   * @param signals The signals, normally all from one device.
+   * @return The group, used to check whether the last refresh succeeded.
+   */
+  public SignalGroup register(CANBus bus, BaseStatusSignal... signals) {
+    getBus(bus).add(signals);
+    return new SignalGroup(signals);
+  }
+
+  /** Refreshes every registered signal. Must be called from the main loop before reading them. */
+  public void refreshAll() {
+    for (int i = 0; i < buses.size(); i++) {
+      buses.get(i).refresh();
+    }
+  }
+
+  /** Returns the signals for the specified bus, creating them if necessary. */
+  private BusSignals getBus(CANBus bus) {
+    for (BusSignals busSignals : buses) {
+      if (busSignals.name.equals(bus.getName())) {
+        return busSignals;
+      }
+    }
+    BusSignals busSignals = new BusSignals(bus.getName());
+    buses.add(busSignals);
+    return busSignals;
+  }
+
+  /** All signals registered on a single CAN bus. */
+  private static class BusSignals {
+    private final String name;
+    private BaseStatusSignal[] signals = new BaseStatusSignal[0];
+
+    private BusSignals(String name) {
+      this.name = name;
+    }
+
+    private void add(BaseStatusSignal[] newSignals) {
+      BaseStatusSignal[] combined = Arrays.copyOf(signals, signals.length + newSignals.length);
+      System.arraycopy(newSignals, 0, combined, signals.length, newSignals.length);
+      signals = combined;
+    }
+
+    private void refresh() {
+      if (signals.length > 0) {
+        BaseStatusSignal.refreshAll(signals);
+      }
+    }
+  }
+
+  /** A group of signals registered together, normally all from one device. */
+  public static class SignalGroup {
+    private final BaseStatusSignal[] signals;
+
+    private SignalGroup(BaseStatusSignal[] signals) {
+      this.signals = signals;
+    }
+
+    /** Returns the first error from the last refresh of the group, or OK if there was none. */
+    public StatusCode getStatus() {
+      for (BaseStatusSignal signal : signals) {
+        StatusCode status = signal.getStatus();
+        if (!status.isOK()) {
+          return status;
+        }
+      }
+      return StatusCode.OK;
+    }
+
+    /** Returns whether every signal in the group was refreshed successfully. */
+    public boolean isOK() {
+      return getStatus().isOK();
+    }
+  }
+}
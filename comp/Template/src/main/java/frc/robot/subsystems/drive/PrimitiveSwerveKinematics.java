@@ -0,0 +1,229 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package frc.robot.subsystems.drive;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+/**
+ * Swerve kinematics on primitive arrays, matching {@link
+ * edu.wpi.first.math.kinematics.SwerveDriveKinematics} without allocating per call.
+ *
+ * <p>The inverse kinematics matrix A has the rows [1, 0, -y] and [0, 1, x] for each module, so
+ * the inverse kinematics only need the module locations. The forward kinematics use the same
+ * least-squares solution as WPILib: the pseudo-inverse of A, precomputed once as (A^T A)^-1 A^T.
+ *
+ * <p>Methods that produce module states or chassis speeds write into objects owned by the caller.
+ * Module angles are immutable {@link Rotation2d}s, so a module's heading is only reused while its
+ * direction stays the same, such as while stopped or driving straight at any speed. Whenever the
+ * direction changes, which is every loop while the robot turns or the driver steers, a new
+ * {@link Rotation2d} is created for each module.
+ */
+public class PrimitiveSwerveKinematics {
+  private static final double HEADING_TOLERANCE = 1e-12; // Cosine and sine
+
+  private final int moduleCount;
+  private final double[] moduleX;
+  private final double[] moduleY;
+
+  // Headings held while the chassis is not moving, as in SwerveDriveKinematics
+  private final Rotation2d[] moduleHeadings;
+
+  // Rows of the pseudo-inverse, split into the coefficients of each module's x and y components
+  private final double[][] forwardX = new double[3][];
+  private final double[][] forwardY = new double[3][];
+
+  /**
+   * Creates new kinematics.
+   *
+   * @param moduleTranslations The locations of the modules relative to the robot center.
+   */
+  public PrimitiveSwerveKinematics(Translation2d... moduleTranslations) {
+    moduleCount = moduleTranslations.length;
+    moduleX = new double[moduleCount];
+    moduleY = new double[moduleCount];
+    moduleHeadings = new Rotation2d[moduleCount];
+    for (int i = 0; i < moduleCount; i++) {
+      moduleX[i] = moduleTranslations[i].getX();
+      moduleY[i] = moduleTranslations[i].getY();
+      moduleHeadings[i] = Rotation2d.kZero;
+    }
+
+    // Build the normal matrix A^T A
+    double sumX = 0.0;
+    double sumY = 0.0;
+    double sumSquares = 0.0;
+    for (Translation2d translation : moduleTranslations) {
+      sumX += translation.getX();
+      sumY += translation.getY();
+      sumSquares += translation.getSquaredNorm();
+    }
+    double n = moduleCount;
+    double[][] normal = {{n, 0.0, -sumY}, {0.0, n, sumX}, {-sumY, sumX, sumSquares}};
+
+    // Invert it (the inverse of a symmetric matrix is its cofactor matrix over the determinant)
+    double[][] inverse = new double[3][3];
+    for (int row = 0; row < 3; row++) {
+      for (int col = 0; col < 3; col++) {
+        int r0 = row == 0 ? 1 : 0;
+        int r1 = row == 2 ? 1 : 2;
+        int c0 = col == 0 ? 1 : 0;
+        int c1 = col == 2 ? 1 : 2;
+        double minor = normal[r0][c0] * normal[r1][c1] - normal[r0][c1] * normal[r1][c0];
+        inverse[row][col] = ((row + col) % 2 == 0 ? minor : -minor);
+      }
+    }
+    double determinant =
+        normal[0][0] * inverse[0][0] + normal[0][1] * inverse[0][1] + normal[0][2] * inverse[0][2];
+
+    // Multiply by A^T
+    for (int row = 0; row < 3; row++) {
+      forwardX[row] = new double[moduleCount];
+      forwardY[row] = new double[moduleCount];
+      for (int i = 0; i < moduleCount; i++) {
+        double x = moduleTranslations[i].getX();
+        double y = moduleTranslations[i].getY();
+        forwardX[row][i] = (inverse[row][0] - inverse[row][2] * y) / determinant;
+        forwardY[row][i] = (inverse[row][1] + inverse[row][2] * x) / determinant;
+      }
+    }
+  }
+
+  /** Returns the number of modules. */
+  public int getNumModules() {
+    return moduleCount;
+  }
+
+  /**
+   * Computes the robot-relative twist from the module position deltas.
+   *
+   * @param deltasMeters The distance driven by each module.
+   * @param cos The cosine of each module angle.
+   * @param sin The sine of each module angle.
+   * @param twist Receives dx and dy in meters and dtheta in radians, in that order.
+   */
+  public void toTwist2d(double[] deltasMeters, double[] cos, double[] sin, double[] twist) {
+    for (int row = 0; row < 3; row++) {
+      double value = 0.0;
+      for (int i = 0; i < moduleCount; i++) {
+        value += deltasMeters[i] * (forwardX[row][i] * cos[i] + forwardY[row][i] * sin[i]);
+      }
+      twist[row] = value;
+    }
+  }
+
+  /**
+   * Computes the chassis speeds from the module velocities, as in {@link
+   * edu.wpi.first.math.kinematics.SwerveDriveKinematics#toChassisSpeeds}.
+   *
+   * @param states The measured module states.
+   * @param speeds Receives the robot-relative chassis speeds.
+   */
+  public void toChassisSpeeds(SwerveModuleState[] states, ChassisSpeeds speeds) {
+    double vx = 0.0;
+    double vy = 0.0;
+    double omega = 0.0;
+    for (int i = 0; i < moduleCount; i++) {
+      double speed = states[i].speedMetersPerSecond;
+      double cos = states[i].angle.getCos();
+      double sin = states[i].angle.getSin();
+      vx += speed * (forwardX[0][i] * cos + forwardY[0][i] * sin);
+      vy += speed * (forwardX[1][i] * cos + forwardY[1][i] * sin);
+      omega += speed * (forwardX[2][i] * cos + forwardY[2][i] * sin);
+    }
+    speeds.vxMetersPerSecond = vx;
+    speeds.vyMetersPerSecond = vy;
+    speeds.omegaRadiansPerSecond = omega;
+  }
+
+  /**
+   * Computes the module states for the chassis speeds, as in {@link
+   * edu.wpi.first.math.kinematics.SwerveDriveKinematics#toSwerveModuleStates}. If the chassis is
+   * not moving, each module keeps its previous heading.
+   *
+   * @param speeds The desired robot-relative chassis speeds.
+   * @param states Receives the module states. Each state is updated in place.
+   */
+  public void toSwerveModuleStates(ChassisSpeeds speeds, SwerveModuleState[] states) {
+    double vx = speeds.vxMetersPerSecond;
+    double vy = speeds.vyMetersPerSecond;
+    double omega = speeds.omegaRadiansPerSecond;
+    boolean stopped = vx == 0.0 && vy == 0.0 && omega == 0.0;
+    for (int i = 0; i < moduleCount; i++) {
+      double x = vx - omega * moduleY[i];
+      double y = vy + omega * moduleX[i];
+      double speed = Math.hypot(x, y);
+      if (!stopped && speed > 1e-6) {
+        Rotation2d heading = moduleHeadings[i];
+        if (Math.abs(x / speed - heading.getCos()) > HEADING_TOLERANCE
+            || Math.abs(y / speed - heading.getSin()) > HEADING_TOLERANCE) {
+          moduleHeadings[i] = new Rotation2d(x, y);
+        }
+      }
+      states[i].speedMetersPerSecond = stopped ? 0.0 : speed;
+      states[i].angle = moduleHeadings[i];
+    }
+  }
+
+  /**
+   * Sets the headings that modules keep while the chassis is not moving.
+   *
+   * @param headings The heading of each module.
+   */
+  public void resetHeadings(Rotation2d... headings) {
+    System.arraycopy(headings, 0, moduleHeadings, 0, moduleCount);
+  }
+
+  /**
+   * Scales the module speeds down so that none exceeds the maximum, keeping their ratios, as in
+   * {@link edu.wpi.first.math.kinematics.SwerveDriveKinematics#desaturateWheelSpeeds}.
+   *
+   * @param states The module states, updated in place.
+   * @param maxSpeedMetersPerSec The maximum module speed.
+   */
+  public static void desaturateWheelSpeeds(
+      SwerveModuleState[] states, double maxSpeedMetersPerSec) {
+    double realMaxSpeed = 0.0;
+    for (SwerveModuleState state : states) {
+      realMaxSpeed = Math.max(realMaxSpeed, Math.abs(state.speedMetersPerSecond));
+    }
+    if (realMaxSpeed > maxSpeedMetersPerSec) {
+      for (SwerveModuleState state : states) {
+        state.speedMetersPerSecond =
+            state.speedMetersPerSecond / realMaxSpeed * maxSpeedMetersPerSec;
+      }
+    }
+  }
+
+  /**
+   * Discretizes continuous chassis speeds over a timestep, as in {@link
+   * ChassisSpeeds#discretize(ChassisSpeeds, double)}.
+   *
+   * @param speeds The continuous speeds.
+   * @param dtSeconds The duration of the timestep.
+   * @param result Receives the discrete speeds. May be the same object as the input.
+   * @param twist Scratch space for three values.
+   */
+  public static void discretize(
+      ChassisSpeeds speeds, double dtSeconds, ChassisSpeeds result, double[] twist) {
+    // Find the twist that reaches the pose the continuous speeds would, had they been constant
+    PrimitiveSwervePoseEstimator.log(
+        0.0,
+        0.0,
+        0.0,
+        speeds.vxMetersPerSecond * dtSeconds,
+        speeds.vyMetersPerSecond * dtSeconds,
+        speeds.omegaRadiansPerSecond * dtSeconds,
+        twist);
+    result.vxMetersPerSecond = twist[0] / dtSeconds;
+    result.vyMetersPerSecond = twist[1] / dtSeconds;
+    result.omegaRadiansPerSecond = twist[2] / dtSeconds;
+  }
+}
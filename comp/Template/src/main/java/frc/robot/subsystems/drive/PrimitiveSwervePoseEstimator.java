@@ -0,0 +1,697 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package frc.robot.subsystems.drive;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+import frc.robot.subsystems.vision.VisionMeasurementBatch;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Fuses swerve odometry with vision measurements using the same algorithm as WPILib's {@link
+ * edu.wpi.first.math.estimator.SwerveDrivePoseEstimator}, with only primitive state.
+ *
+ * <p>Odometry poses are kept in a preallocated ring buffer covering the last 1.5 seconds, and
+ * vision updates are kept in growable sorted arrays. Poses are stored as x, y and heading in
+ * radians, and all pose math (exp, log, interpolation and vision compensation) is done on
+ * primitives, so odometry updates and vision measurements do not allocate once the buffers have
+ * reached their steady-state size. Methods that return a {@link Pose2d} allocate only the result.
+ */
+public class PrimitiveSwervePoseEstimator {
+  private static final double BUFFER_DURATION = 1.5;
+  private static final int DEFAULT_HISTORY_CAPACITY = 1024;
+  private static final int INITIAL_VISION_CAPACITY = 32;
+
+  private final int moduleCount;
+  private final PrimitiveSwerveKinematics kinematics;
+  private final double[] q = new double[3];
+  private final double[] visionK = new double[3];
+
+  // Odometry
+  private final double[] previousDistancesMeters;
+  private final double[] deltasMeters;
+  private final double[] cos;
+  private final double[] sin;
+  private final double[] twist = new double[3];
+  private double odometryX;
+  private double odometryY;
+  private double odometryTheta;
+  private double previousAngle;
+  private double gyroOffset;
+
+  // Odometry pose history, oldest first starting at historyStart
+  private final double[] historyTimestamps;
+  private final double[] historyX;
+  private final double[] historyY;
+  private final double[] historyTheta;
+  private int historyStart = 0;
+  private int historySize = 0;
+
+  // Vision updates sorted by timestamp, each pairing a vision-corrected pose with the odometry
+  // pose at the same time
+  private double[] visionTimestamps = new double[INITIAL_VISION_CAPACITY];
+  private double[] visionX = new double[INITIAL_VISION_CAPACITY];
+  private double[] visionY = new double[INITIAL_VISION_CAPACITY];
+  private double[] visionTheta = new double[INITIAL_VISION_CAPACITY];
+  private double[] visionOdometryX = new double[INITIAL_VISION_CAPACITY];
+  private double[] visionOdometryY = new double[INITIAL_VISION_CAPACITY];
+  private double[] visionOdometryTheta = new double[INITIAL_VISION_CAPACITY];
+  private int visionCount = 0;
+  private long discardedVisionUpdateCount = 0;
+
+  private double estimateX;
+  private double estimateY;
+  private double estimateTheta;
+
+  // Scratch space for pose math
+  private final double[] sample = new double[3];
+  private final double[] visionSample = new double[3];
+  private final double[] scratch = new double[3];
+
+  /**
+   * Creates a new estimator with the default standard deviations of WPILib's estimator: 0.1 meters
+   * and radians for the model and 0.9 meters and radians for vision.
+   *
+   * @param moduleTranslations The locations of the modules relative to the robot center.
+   * @param gyroAngle The current gyro angle.
+   * @param modulePositions The current module positions.
+   * @param initialPose The starting pose estimate.
+   */
+  public PrimitiveSwervePoseEstimator(
+      Translation2d[] moduleTranslations,
+      Rotation2d gyroAngle,
+      SwerveModulePosition[] modulePositions,
+      Pose2d initialPose) {
+    this(
+        moduleTranslations,
+        gyroAngle,
+        modulePositions,
+        initialPose,
+        new double[] {0.1, 0.1, 0.1},
+        new double[] {0.9, 0.9, 0.9},
+        DEFAULT_HISTORY_CAPACITY);
+  }
+
+  /**
+   * Creates a new estimator.
+   *
+   * @param moduleTranslations The locations of the modules relative to the robot center.
+   * @param gyroAngle The current gyro angle.
+   * @param modulePositions The current module positions.
+   * @param initialPose The starting pose estimate.
+   * @param stateStdDevs Standard deviations of the model in meters, meters and radians.
+   * @param visionMeasurementStdDevs Standard deviations of vision measurements in meters, meters
+   *     and radians.
+   * @param historyCapacity Maximum number of odometry samples kept. Must cover 1.5 seconds at the
+   *     odometry rate for the results to match WPILib's estimator.
+   */
+  public PrimitiveSwervePoseEstimator(
+      Translation2d[] moduleTranslations,
+      Rotation2d gyroAngle,
+      SwerveModulePosition[] modulePositions,
+      Pose2d initialPose,
+      double[] stateStdDevs,
+      double[] visionMeasurementStdDevs,
+      int historyCapacity) {
+    moduleCount = moduleTranslations.length;
+    kinematics = new PrimitiveSwerveKinematics(moduleTranslations);
+    previousDistancesMeters = new double[moduleCount];
+    deltasMeters = new double[moduleCount];
+    cos = new double[moduleCount];
+    sin = new double[moduleCount];
+    historyTimestamps = new double[historyCapacity];
+    historyX = new double[historyCapacity];
+    historyY = new double[historyCapacity];
+    historyTheta = new double[historyCapacity];
+
+    for (int i = 0; i < 3; i++) {
+      q[i] = stateStdDevs[i] * stateStdDevs[i];
+    }
+    setVisionMeasurementStdDevs(
+        visionMeasurementStdDevs[0], visionMeasurementStdDevs[1], visionMeasurementStdDevs[2]);
+
+    odometryX = initialPose.getX();
+    odometryY = initialPose.getY();
+    odometryTheta = initialPose.getRotation().getRadians();
+    previousAngle = odometryTheta;
+    gyroOffset = MathUtil.angleModulus(odometryTheta - gyroAngle.getRadians());
+    copyDistances(modulePositions);
+    setEstimateToOdometry();
+  }
+
+  /**
+   * Sets the trust of vision measurements, as in {@link
+   * edu.wpi.first.math.estimator.PoseEstimator#setVisionMeasurementStdDevs}.
+   */
+  public void setVisionMeasurementStdDevs(Matrix<N3, N1> visionMeasurementStdDevs) {
+    setVisionMeasurementStdDevs(
+        visionMeasurementStdDevs.get(0, 0),
+        visionMeasurementStdDevs.get(1, 0),
+        visionMeasurementStdDevs.get(2, 0));
+  }
+
+  private void setVisionMeasurementStdDevs(double xStdDev, double yStdDev, double thetaStdDev) {
+    // Closed form Kalman gain for a continuous Kalman filter with A = 0 and C = I
+    visionK[0] = kalmanGain(q[0], xStdDev * xStdDev);
+    visionK[1] = kalmanGain(q[1], yStdDev * yStdDev);
+    visionK[2] = kalmanGain(q[2], thetaStdDev * thetaStdDev);
+  }
+
+  private static double kalmanGain(double q, double r) {
+    return q == 0.0 ? 0.0 : q / (q + Math.sqrt(q * r));
+  }
+
+  /**
+   * Resets the robot's position on the field. The gyro angle does not need to be reset, since the
+   * offset is tracked internally. Clears the odometry history and vision updates.
+   */
+  public void resetPosition(
+      Rotation2d gyroAngle, SwerveModulePosition[] modulePositions, Pose2d pose) {
+    odometryX = pose.getX();
+    odometryY = pose.getY();
+    odometryTheta = pose.getRotation().getRadians();
+    previousAngle = odometryTheta;
+    gyroOffset = MathUtil.angleModulus(odometryTheta - gyroAngle.getRadians());
+    copyDistances(modulePositions);
+    historySize = 0;
+    visionCount = 0;
+    setEstimateToOdometry();
+  }
+
+  /** Returns the current pose estimate. */
+  public Pose2d getEstimatedPosition() {
+    return new Pose2d(estimateX, estimateY, new Rotation2d(estimateTheta));
+  }
+
+  /** Returns the X coordinate of the current pose estimate in meters. */
+  public double getEstimatedX() {
+    return estimateX;
+  }
+
+  /** Returns the Y coordinate of the current pose estimate in meters. */
+  public double getEstimatedY() {
+    return estimateY;
+  }
+
+  /** Returns the heading of the current pose estimate in radians. */
+  public double getEstimatedRotationRad() {
+    return estimateTheta;
+  }
+
+  /**
+   * Copies the robot-relative twist of the latest odometry update.
+   *
+   * @param destination Receives dx and dy in meters and dtheta in radians, in that order.
+   */
+  public void getOdometryTwist(double[] destination) {
+    destination[0] = twist[0];
+    destination[1] = twist[1];
+    destination[2] = twist[2];
+  }
+
+  /**
+   * Returns the pose estimate at the specified time, or empty if there is no odometry history. The
+   * timestamp is clamped to the range of the history.
+   */
+  public Optional<Pose2d> sampleAt(double timestampSeconds) {
+    if (!sampleAt(timestampSeconds, sample)) {
+      return Optional.empty();
+    }
+    return Optional.of(new Pose2d(sample[0], sample[1], new Rotation2d(sample[2])));
+  }
+
+  /**
+   * Adds a vision measurement, as in {@link
+   * edu.wpi.first.math.estimator.PoseEstimator#addVisionMeasurement(Pose2d, double, Matrix)}.
+   */
+  public void addVisionMeasurement(
+      Pose2d visionRobotPoseMeters,
+      double timestampSeconds,
+      Matrix<N3, N1> visionMeasurementStdDevs) {
+    setVisionMeasurementStdDevs(visionMeasurementStdDevs);
+    addVisionMeasurement(visionRobotPoseMeters, timestampSeconds);
+  }
+
+  /**
+   * Adds a vision measurement, as in {@link
+   * edu.wpi.first.math.estimator.PoseEstimator#addVisionMeasurement(Pose2d, double)}.
+   */
+  public void addVisionMeasurement(Pose2d visionRobotPoseMeters, double timestampSeconds) {
+    addVisionMeasurement(
+        visionRobotPoseMeters.getX(),
+        visionRobotPoseMeters.getY(),
+        visionRobotPoseMeters.getRotation().getRadians(),
+        timestampSeconds);
+  }
+
+  /**
+   * Adds a vision measurement given as primitives, using the current vision standard deviations.
+   *
+   * @param x The measured X position in meters.
+   * @param y The measured Y position in meters.
+   * @param thetaRad The measured heading in radians.
+   * @param timestampSeconds The time of the measurement.
+   */
+  public void addVisionMeasurement(double x, double y, double thetaRad, double timestampSeconds) {
+    if (insertVisionUpdate(x, y, thetaRad, timestampSeconds)) {
+      updateEstimateFromVision();
+    }
+  }
+
+  /**
+   * Adds a batch of vision measurements, updating the latest estimate once at the end instead of
+   * after each measurement. The batch should be sorted from oldest to newest, since each
+   * measurement discards any vision updates later than itself.
+   *
+   * @param batch The measurements, each with its own standard deviations.
+   * @return The number of measurements applied. Measurements older than the odometry history are
+   *     skipped.
+   */
+  public int addVisionMeasurements(VisionMeasurementBatch batch) {
+    int applied = 0;
+    for (int i = 0; i < batch.size(); i++) {
+      setVisionMeasurementStdDevs(
+          batch.getLinearStdDev(i), batch.getLinearStdDev(i), batch.getAngularStdDev(i));
+      if (insertVisionUpdate(
+          batch.getX(i), batch.getY(i), batch.getThetaRad(i), batch.getTimestamp(i))) {
+        applied++;
+      }
+    }
+    if (applied > 0) {
+      updateEstimateFromVision();
+    }
+    return applied;
+  }
+
+  /**
+   * Returns the total number of vision updates discarded because an older measurement was added
+   * after them. Each discarded update is information lost to out-of-order measurements.
+   */
+  public long getDiscardedVisionUpdateCount() {
+    return discardedVisionUpdateCount;
+  }
+
+  /**
+   * Records a vision update without updating the latest estimate.
+   *
+   * @return Whether the measurement was recent enough to be used.
+   */
+  private boolean insertVisionUpdate(double x, double y, double thetaRad, double timestampSeconds) {
+    // Skip measurements older than the odometry history
+    if (historySize == 0
+        || historyTimestamps[historyIndex(historySize - 1)] - BUFFER_DURATION > timestampSeconds) {
+      return false;
+    }
+
+    // Clean up vision updates that are no longer needed
+    cleanUpVisionUpdates();
+
+    // Get the odometry pose and the vision-compensated estimate at the time of the measurement
+    getOdometrySample(timestampSeconds, sample);
+    sampleAt(timestampSeconds, visionSample);
+
+    // Scale the twist between the old estimate and the measurement by the Kalman gain
+    log(
+        visionSample[0],
+        visionSample[1],
+        visionSample[2],
+        x,
+        y,
+        MathUtil.angleModulus(thetaRad),
+        scratch);
+    scratch[0] *= visionK[0];
+    scratch[1] *= visionK[1];
+    scratch[2] *= visionK[2];
+    exp(visionSample[0], visionSample[1], visionSample[2], scratch, scratch);
+
+    // Record the vision update, removing any later updates
+    int index = visionCount;
+    while (index > 0 && visionTimestamps[index - 1] >= timestampSeconds) {
+      index--;
+    }
+    discardedVisionUpdateCount += visionCount - index;
+    visionCount = index;
+    if (visionCount == visionTimestamps.length) {
+      growVisionUpdates();
+    }
+    visionTimestamps[index] = timestampSeconds;
+    visionX[index] = scratch[0];
+    visionY[index] = scratch[1];
+    visionTheta[index] = scratch[2];
+    visionOdometryX[index] = sample[0];
+    visionOdometryY[index] = sample[1];
+    visionOdometryTheta[index] = sample[2];
+    visionCount++;
+    return true;
+  }
+
+  /** Updates the latest estimate, which is compensated by the latest vision update. */
+  private void updateEstimateFromVision() {
+    compensate(visionCount - 1, odometryX, odometryY, odometryTheta, scratch);
+    estimateX = scratch[0];
+    estimateY = scratch[1];
+    estimateTheta = scratch[2];
+  }
+
+  /**
+   * Updates the estimate with wheel odometry, as in {@link
+   * edu.wpi.first.math.estimator.PoseEstimator#updateWithTime}.
+   *
+   * @return The updated pose estimate.
+   */
+  public Pose2d updateWithTime(
+      double currentTimeSeconds, Rotation2d gyroAngle, SwerveModulePosition[] modulePositions) {
+    updateWithTime(currentTimeSeconds, gyroAngle.getRadians(), modulePositions);
+    return getEstimatedPosition();
+  }
+
+  /**
+   * Updates the estimate with wheel odometry without allocating.
+   *
+   * @param currentTimeSeconds The time of the sample.
+   * @param gyroAngleRad The gyro angle in radians.
+   * @param modulePositions The current module positions.
+   */
+  public void updateWithTime(
+      double currentTimeSeconds, double gyroAngleRad, SwerveModulePosition[] modulePositions) {
+    for (int i = 0; i < moduleCount; i++) {
+      deltasMeters[i] = modulePositions[i].distanceMeters - previousDistancesMeters[i];
+      cos[i] = modulePositions[i].angle.getCos();
+      sin[i] = modulePositions[i].angle.getSin();
+    }
+    copyDistances(modulePositions);
+    updateOdometry(currentTimeSeconds, gyroAngleRad);
+  }
+
+  /**
+   * Updates the estimate with wheel odometry from primitive module samples without allocating.
+   *
+   * @param currentTimeSeconds The time of the sample.
+   * @param gyroAngleRad The gyro angle in radians.
+   * @param distancesMeters The drive distance of each module.
+   * @param moduleCos The cosine of each module angle.
+   * @param moduleSin The sine of each module angle.
+   */
+  public void updateWithTime(
+      double currentTimeSeconds,
+      double gyroAngleRad,
+      double[] distancesMeters,
+      double[] moduleCos,
+      double[] moduleSin) {
+    for (int i = 0; i < moduleCount; i++) {
+      deltasMeters[i] = distancesMeters[i] - previousDistancesMeters[i];
+      cos[i] = moduleCos[i];
+      sin[i] = moduleSin[i];
+      previousDistancesMeters[i] = distancesMeters[i];
+    }
+    updateOdometry(currentTimeSeconds, gyroAngleRad);
+  }
+
+  /** Integrates the module deltas and angles in the scratch arrays, then updates the estimate. */
+  private void updateOdometry(double currentTimeSeconds, double gyroAngleRad) {
+    // Update odometry, using the gyro for the heading change
+    double angle = MathUtil.angleModulus(gyroAngleRad + gyroOffset);
+    kinematics.toTwist2d(deltasMeters, cos, sin, twist);
+    twist[2] = MathUtil.angleModulus(angle - previousAngle);
+    exp(odometryX, odometryY, odometryTheta, twist, scratch);
+    previousAngle = angle;
+    odometryX = scratch[0];
+    odometryY = scratch[1];
+    odometryTheta = angle;
+
+    addHistorySample(currentTimeSeconds);
+    if (visionCount == 0) {
+      setEstimateToOdometry();
+    } else {
+      updateEstimateFromVision();
+    }
+  }
+
+  private void copyDistances(SwerveModulePosition[] modulePositions) {
+    for (int i = 0; i < moduleCount; i++) {
+      previousDistancesMeters[i] = modulePositions[i].distanceMeters;
+    }
+  }
+
+  private void setEstimateToOdometry() {
+    estimateX = odometryX;
+    estimateY = odometryY;
+    estimateTheta = odometryTheta;
+  }
+
+  private int historyIndex(int i) {
+    return (historyStart + i) % historyTimestamps.length;
+  }
+
+  /** Adds the current odometry pose to the history, discarding samples older than the buffer. */
+  private void addHistorySample(double timestamp) {
+    while (historySize > 0 && timestamp - historyTimestamps[historyStart] >= BUFFER_DURATION) {
+      historyStart = (historyStart + 1) % historyTimestamps.length;
+      historySize--;
+    }
+
+    // Find the position of the sample, which is normally after all others
+    int position = historySize;
+    while (position > 0 && historyTimestamps[historyIndex(position - 1)] > timestamp) {
+      position--;
+    }
+    if (position > 0 && historyTimestamps[historyIndex(position - 1)] == timestamp) {
+      setHistorySample(position - 1, timestamp); // Replace a sample with the same timestamp
+      return;
+    }
+
+    if (historySize == historyTimestamps.length) {
+      if (position == 0) {
+        return; // Older than everything in a full buffer
+      }
+      historyStart = (historyStart + 1) % historyTimestamps.length;
+      historySize--;
+      position--;
+    }
+    for (int i = historySize; i > position; i--) {
+      int to = historyIndex(i);
+      int from = historyIndex(i - 1);
+      historyTimestamps[to] = historyTimestamps[from];
+      historyX[to] = historyX[from];
+      historyY[to] = historyY[from];
+      historyTheta[to] = historyTheta[from];
+    }
+    historySize++;
+    setHistorySample(position, timestamp);
+  }
+
+  private void setHistorySample(int i, double timestamp) {
+    int index = historyIndex(i);
+    historyTimestamps[index] = timestamp;
+    historyX[index] = odometryX;
+    historyY[index] = odometryY;
+    historyTheta[index] = odometryTheta;
+  }
+
+  /**
+   * Interpolates the odometry history at the specified time, holding the oldest or newest sample
+   * outside of its range. The history must not be empty.
+   */
+  private void getOdometrySample(double timestamp, double[] result) {
+    // Find the first sample at or after the timestamp
+    int low = 0;
+    int high = historySize;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (historyTimestamps[historyIndex(mid)] < timestamp) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+
+    if (low == historySize || historyTimestamps[historyIndex(low)] == timestamp || low == 0) {
+      int index = historyIndex(low == historySize ? historySize - 1 : low);
+      result[0] = historyX[index];
+      result[1] = historyY[index];
+      result[2] = historyTheta[index];
+      return;
+    }
+    int bottom = historyIndex(low - 1);
+    int top = historyIndex(low);
+    double t =
+        (timestamp - historyTimestamps[bottom])
+            / (historyTimestamps[top] - historyTimestamps[bottom]);
+    if (t >= 1.0) {
+      result[0] = historyX[top];
+      result[1] = historyY[top];
+      result[2] = historyTheta[top];
+      return;
+    }
+    log(
+        historyX[bottom],
+        historyY[bottom],
+        historyTheta[bottom],
+        historyX[top],
+        historyY[top],
+        historyTheta[top],
+        result);
+    result[0] *= t;
+    result[1] *= t;
+    result[2] *= t;
+    exp(historyX[bottom], historyY[bottom], historyTheta[bottom], result, result);
+  }
+
+  /** Computes the vision-compensated estimate at the specified time, as in sampleAt. */
+  private boolean sampleAt(double timestamp, double[] result) {
+    if (historySize == 0) {
+      return false;
+    }
+    double oldest = historyTimestamps[historyIndex(0)];
+    double newest = historyTimestamps[historyIndex(historySize - 1)];
+    timestamp = MathUtil.clamp(timestamp, oldest, newest);
+    getOdometrySample(timestamp, result);
+    if (visionCount == 0 || timestamp < visionTimestamps[0]) {
+      return true;
+    }
+    compensate(floorVisionIndex(timestamp), result[0], result[1], result[2], result);
+    return true;
+  }
+
+  /** Returns the index of the latest vision update at or before the timestamp. */
+  private int floorVisionIndex(double timestamp) {
+    int index = visionCount - 1;
+    while (index > 0 && visionTimestamps[index] > timestamp) {
+      index--;
+    }
+    return index;
+  }
+
+  /** Removes vision updates older than the one needed for the oldest odometry sample. */
+  private void cleanUpVisionUpdates() {
+    if (historySize == 0) {
+      return;
+    }
+    double oldestOdometryTimestamp = historyTimestamps[historyIndex(0)];
+    if (visionCount == 0 || oldestOdometryTimestamp < visionTimestamps[0]) {
+      return;
+    }
+    int firstNeeded = floorVisionIndex(oldestOdometryTimestamp);
+    if (firstNeeded > 0) {
+      visionCount -= firstNeeded;
+      System.arraycopy(visionTimestamps, firstNeeded, visionTimestamps, 0, visionCount);
+      System.arraycopy(visionX, firstNeeded, visionX, 0, visionCount);
+      System.arraycopy(visionY, firstNeeded, visionY, 0, visionCount);
+      System.arraycopy(visionTheta, firstNeeded, visionTheta, 0, visionCount);
+      System.arraycopy(visionOdometryX, firstNeeded, visionOdometryX, 0, visionCount);
+      System.arraycopy(visionOdometryY, firstNeeded, visionOdometryY, 0, visionCount);
+      System.arraycopy(visionOdometryTheta, firstNeeded, visionOdometryTheta, 0, visionCount);
+    }
+  }
+
+  private void growVisionUpdates() {
+    int capacity = visionTimestamps.length * 2;
+    visionTimestamps = Arrays.copyOf(visionTimestamps, capacity);
+    visionX = Arrays.copyOf(visionX, capacity);
+    visionY = Arrays.copyOf(visionY, capacity);
+    visionTheta = Arrays.copyOf(visionTheta, capacity);
+    visionOdometryX = Arrays.copyOf(visionOdometryX, capacity);
+    visionOdometryY = Arrays.copyOf(visionOdometryY, capacity);
+    visionOdometryTheta = Arrays.copyOf(visionOdometryTheta, capacity);
+  }
+
+  /**
+   * Applies a vision update to an odometry pose: the change in odometry since the update is
+   * applied on top of the vision-corrected pose of the update.
+   */
+  private void compensate(int update, double x, double y, double theta, double[] result) {
+    // Transform from the odometry pose of the update to the pose
+    double odometryTheta = visionOdometryTheta[update];
+    double dx = x - visionOdometryX[update];
+    double dy = y - visionOdometryY[update];
+    double inverseCos = Math.cos(-odometryTheta);
+    double inverseSin = Math.sin(-odometryTheta);
+    double localX = dx * inverseCos - dy * inverseSin;
+    double localY = dx * inverseSin + dy * inverseCos;
+    double dtheta = MathUtil.angleModulus(theta - odometryTheta);
+
+    // Apply it to the vision pose of the update
+    double visionCos = Math.cos(visionTheta[update]);
+    double visionSin = Math.sin(visionTheta[update]);
+    result[0] = visionX[update] + localX * visionCos - localY * visionSin;
+    result[1] = visionY[update] + localX * visionSin + localY * visionCos;
+    result[2] = MathUtil.angleModulus(dtheta + visionTheta[update]);
+  }
+
+  /**
+   * Applies a twist to a pose, as in {@link Pose2d#exp}. The result may alias the twist.
+   *
+   * @param twist The twist as dx, dy and dtheta.
+   * @param result Receives x, y and heading.
+   */
+  static void exp(double x, double y, double theta, double[] twist, double[] result) {
+    double dx = twist[0];
+    double dy = twist[1];
+    double dtheta = twist[2];
+    double sinTheta = Math.sin(dtheta);
+    double cosTheta = Math.cos(dtheta);
+    double s;
+    double c;
+    if (Math.abs(dtheta) < 1e-9) {
+      s = 1.0 - 1.0 / 6.0 * dtheta * dtheta;
+      c = 0.5 * dtheta;
+    } else {
+      s = sinTheta / dtheta;
+      c = (1 - cosTheta) / dtheta;
+    }
+    double localX = dx * s - dy * c;
+    double localY = dx * c + dy * s;
+    double poseCos = Math.cos(theta);
+    double poseSin = Math.sin(theta);
+    result[0] = x + localX * poseCos - localY * poseSin;
+    result[1] = y + localX * poseSin + localY * poseCos;
+    result[2] = MathUtil.angleModulus(theta + dtheta);
+  }
+
+  /**
+   * Computes the twist between two poses, as in {@link Pose2d#log}.
+   *
+   * @param result Receives dx, dy and dtheta.
+   */
+  static void log(
+      double startX,
+      double startY,
+      double startTheta,
+      double endX,
+      double endY,
+      double endTheta,
+      double[] result) {
+    // End pose relative to the start pose
+    double inverseCos = Math.cos(-startTheta);
+    double inverseSin = Math.sin(-startTheta);
+    double dx = endX - startX;
+    double dy = endY - startY;
+    double transformX = dx * inverseCos - dy * inverseSin;
+    double transformY = dx * inverseSin + dy * inverseCos;
+    double dtheta = MathUtil.angleModulus(endTheta - startTheta);
+
+    double halfDtheta = dtheta / 2.0;
+    double cosMinusOne = Math.cos(dtheta) - 1;
+    double halfThetaByTanOfHalfDtheta;
+    if (Math.abs(cosMinusOne) < 1e-9) {
+      halfThetaByTanOfHalfDtheta = 1.0 - 1.0 / 12.0 * dtheta * dtheta;
+    } else {
+      halfThetaByTanOfHalfDtheta = -(halfDtheta * Math.sin(dtheta)) / cosMinusOne;
+    }
+    result[0] = transformX * halfThetaByTanOfHalfDtheta + transformY * halfDtheta;
+    result[1] = transformY * halfThetaByTanOfHalfDtheta - transformX * halfDtheta;
+    result[2] = dtheta;
+  }
+}
@@ -0,0 +1,111 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package frc.robot.subsystems.drive;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusCode;
+import com.ctre.phoenix6.Utils;
+import java.util.Arrays;
+
+/**
+ * Tracks the health of a set of Phoenix status signals from their cached state after each refresh.
+ *
+ * <p>For each signal this reports the age of its newest frame, its update rate as observed by the
+ * robot loop, the number of refreshes that returned an error and the status of the last refresh. A
+ * signal slowing down or getting older points at an overloaded bus or a degrading CAN segment well
+ * before the connection debouncers report a disconnected device. The observed rate only counts
+ * new frames seen by the loop, so it is capped at the loop rate for faster signals.
+ *
+ * <p>The returned arrays are logged by reference, so they are never written again once returned.
+ * The age array is new each loop, the rate array is replaced once per rate window and the error
+ * count and status arrays are replaced only when a value changes.
+ */
+public class SignalHealth {
+  private static final double RATE_WINDOW_SECS = 1.0;
+
+  private final BaseStatusSignal[] signals;
+  private final double[] lastFrameTimes;
+  private final int[] framesInWindow;
+  private long[] errorCounts;
+  private int[] statusCodes;
+  private double windowStart = Double.NaN;
+  private double[] agesMs = new double[0];
+  private double[] ratesHz;
+
+  /**
+   * Creates a new tracker.
+   *
+   * @param signals The signals to track, in the order they are reported.
+   */
+  public SignalHealth(BaseStatusSignal... signals) {
+    this.signals = signals;
+    lastFrameTimes = new double[signals.length];
+    framesInWindow = new int[signals.length];
+    ratesHz = new double[signals.length];
+    errorCounts = new long[signals.length];
+    statusCodes = new int[signals.length];
+  }
+
+  /** Updates the health of every signal. Must be called once per loop, after the refresh. */
+  public void update() {
+    double now = Utils.getCurrentTimeSeconds();
+    agesMs = new double[signals.length];
+    for (int i = 0; i < signals.length; i++) {
+      BaseStatusSignal signal = signals[i];
+      double frameTime = signal.getAllTimestamps().getSystemTimestamp().getTime();
+      agesMs[i] = Math.max(now - frameTime, 0.0) * 1000.0;
+      if (frameTime != lastFrameTimes[i]) {
+        lastFrameTimes[i] = frameTime;
+        framesInWindow[i]++;
+      }
+
+      StatusCode status = signal.getStatus();
+      if (status.value != statusCodes[i]) {
+        statusCodes = Arrays.copyOf(statusCodes, statusCodes.length);
+        statusCodes[i] = status.value;
+      }
+      if (!status.isOK()) {
+        errorCounts = Arrays.copyOf(errorCounts, errorCounts.length);
+        errorCounts[i]++;
+      }
+    }
+
+    // Update the rates once per window
+    if (Double.isNaN(windowStart)) {
+      windowStart = now;
+      Arrays.fill(framesInWindow, 0);
+    } else if (now - windowStart >= RATE_WINDOW_SECS) {
+      ratesHz = new double[signals.length];
+      for (int i = 0; i < signals.length; i++) {
+        ratesHz[i] = framesInWindow[i] / (now - windowStart);
+        framesInWindow[i] = 0;
+      }
+      windowStart = now;
+    }
+  }
+
+  /** Returns the age of the newest frame of each signal in milliseconds. */
+  public double[] getAgesMs() {
+    return agesMs;
+  }
+
+  /** Returns the rate of new frames of each signal seen by the loop, in hertz. */
+  public double[] getRatesHz() {
+    return ratesHz;
+  }
+
+  /** Returns the number of refreshes of each signal that returned an error. */
+  public long[] getErrorCounts() {
+    return errorCounts;
+  }
+
+  /** Returns the status code value of the last refresh of each signal, zero if it was OK. */
+  public int[] getStatusCodes() {
+    return statusCodes;
+  }
+}
@@ -8,7 +8,6 @@
 package frc.robot.subsystems.vision;
 
 import edu.wpi.first.math.Matrix;
-import edu.wpi.first.math.VecBuilder;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Pose3d;
 import edu.wpi.first.math.geometry.Rotation2d;
@@ -18,6 +17,9 @@ import edu.wpi.first.wpilibj.Alert;
 import edu.wpi.first.wpilibj.Alert.AlertType;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.subsystems.vision.VisionIO.PoseObservationType;
+import frc.robot.util.StageProfiler;
+import frc.robot.util.TelemetryTiers;
+import frc.robot.util.TelemetryTiers.Tier;
 import static frc.robot.subsystems.vision.VisionConstants.*;
 import java.util.LinkedList;
 import java.util.List;
@@ -25,15 +27,54 @@ import org.littletonrobotics.junction.Logger;
 
 
 public class Vision extends SubsystemBase {
-  private final VisionConsumer consumer;
+  private final VisionBatchConsumer consumer;
   private final VisionIO[] io;
   private final VisionIOInputsAutoLogged[] inputs;
   private final Alert[] disconnectedAlerts;
+  private final VisionMeasurementBatch batch = new VisionMeasurementBatch();
+
+  // Stages of periodic(), timed when profiling is enabled
+  private static final int STAGE_UPDATE_INPUTS = 0;
+  private static final int STAGE_PROCESS_INPUTS = 1;
+  private static final int STAGE_OBSERVATIONS = 2;
+  private static final int STAGE_FUSION = 3;
+  private static final int STAGE_LOGGING = 4;
+  private final StageProfiler profiler =
+      new StageProfiler(
+          "Vision", "UpdateInputs", "ProcessInputs", "Observations", "Fusion", "Logging");
 
+  /**
+   * Creates a vision subsystem that sends each loop's accepted observations to the consumer one at
+   * a time, in the order they were received.
+   */
   public Vision(VisionConsumer consumer, VisionIO... io) {
+    this(
+        (measurements) -> {
+          for (int i = 0; i < measurements.size(); i++) {
+            consumer.accept(
+                measurements.getPose(i), measurements.getTimestamp(i), measurements.getStdDevs(i));
+          }
+        },
+        io);
+  }
+
+  /**
+   * Creates a vision subsystem that sends all of each loop's accepted observations to the consumer
+   * as one batch, so they can be fused together.
+   */
+  public Vision(VisionBatchConsumer consumer, VisionIO... io) {
     this.consumer = consumer;
     this.io = io;
 
+    // Assign telemetry tiers, so per-camera data is thinned out on the dashboard
+    TelemetryTiers.register(
+        Tier.DEBUG,
+        "Vision/Camera",
+        "Vision/Summary/TagPoses",
+        "Vision/Summary/RobotPoses",
+        "Vision/Summary/RobotPosesRejected");
+    TelemetryTiers.register(Tier.STANDARD, "Vision/Summary/RobotPosesAccepted");
+
     // Initialize inputs
     this.inputs = new VisionIOInputsAutoLogged[io.length];
     for (int i = 0; i < inputs.length; i++) {
@@ -60,9 +101,12 @@ public class Vision extends SubsystemBase {
 
   @Override
   public void periodic() {
+    profiler.start();
     for (int i = 0; i < io.length; i++) {
       io[i].updateInputs(inputs[i]);
+      profiler.mark(STAGE_UPDATE_INPUTS);
       Logger.processInputs("Vision/Camera" + Integer.toString(i), inputs[i]);
+      profiler.mark(STAGE_PROCESS_INPUTS);
     }
 
     // Initialize logging values
@@ -70,6 +114,7 @@ public class Vision extends SubsystemBase {
     List<Pose3d> allRobotPoses = new LinkedList<>();
     List<Pose3d> allRobotPosesAccepted = new LinkedList<>();
     List<Pose3d> allRobotPosesRejected = new LinkedList<>();
+    batch.clear();
 
     // Loop over cameras
     for (int cameraIndex = 0; cameraIndex < io.length; cameraIndex++) {
@@ -133,12 +178,11 @@ public class Vision extends SubsystemBase {
           angularStdDev *= cameraStdDevFactors[cameraIndex];
         }
 
-        // Send vision observation
-        consumer.accept(
-            observation.pose().toPose2d(),
-            observation.timestamp(),
-            VecBuilder.fill(linearStdDev, linearStdDev, angularStdDev));
+        // Add vision observation to the batch
+        batch.add(
+            observation.pose().toPose2d(), observation.timestamp(), linearStdDev, angularStdDev);
       }
+      profiler.mark(STAGE_OBSERVATIONS);
 
       // Log camera metadata
       Logger.recordOutput(
@@ -157,7 +201,14 @@ public class Vision extends SubsystemBase {
       allRobotPoses.addAll(robotPoses);
       allRobotPosesAccepted.addAll(robotPosesAccepted);
       allRobotPosesRejected.addAll(robotPosesRejected);
+      profiler.mark(STAGE_LOGGING);
+    }
+
+    // Send vision observations
+    if (batch.size() > 0) {
+      consumer.accept(batch);
     }
+    profiler.mark(STAGE_FUSION);
 
     // Log summary data
     Logger.recordOutput("Vision/Summary/TagPoses", allTagPoses.toArray(new Pose3d[0]));
@@ -166,6 +217,8 @@ public class Vision extends SubsystemBase {
         "Vision/Summary/RobotPosesAccepted", allRobotPosesAccepted.toArray(new Pose3d[0]));
     Logger.recordOutput(
         "Vision/Summary/RobotPosesRejected", allRobotPosesRejected.toArray(new Pose3d[0]));
+    profiler.mark(STAGE_LOGGING);
+    profiler.finish();
   }
 
   @FunctionalInterface
@@ -175,4 +228,13 @@ public class Vision extends SubsystemBase {
         double timestampSeconds,
         Matrix<N3, N1> visionMeasurementStdDevs);
   }
+
+  @FunctionalInterface
+  public static interface VisionBatchConsumer {
+    /**
+     * Accepts the observations from one loop. The batch is reused on the next loop, so it must not
+     * be kept, but it may be reordered.
+     */
+    public void accept(VisionMeasurementBatch batch);
+  }
 }
\ No newline at end of file
@@ -0,0 +1,142 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package frc.robot.subsystems.vision;
+
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+import java.util.Arrays;
+
+/**
+ * The accepted vision measurements from one robot loop, stored in reusable primitive arrays. The
+ * arrays grow as needed and are kept between loops, so filling a batch does not allocate once it
+ * has reached its steady-state size.
+ */
+public class VisionMeasurementBatch {
+  private static final int INITIAL_CAPACITY = 16;
+
+  private double[] timestamps = new double[INITIAL_CAPACITY];
+  private double[] x = new double[INITIAL_CAPACITY];
+  private double[] y = new double[INITIAL_CAPACITY];
+  private double[] thetaRad = new double[INITIAL_CAPACITY];
+  private double[] linearStdDevs = new double[INITIAL_CAPACITY];
+  private double[] angularStdDevs = new double[INITIAL_CAPACITY];
+  private int size = 0;
+
+  /** Removes all measurements. */
+  public void clear() {
+    size = 0;
+  }
+
+  /**
+   * Adds a measurement.
+   *
+   * @param pose The measured robot pose.
+   * @param timestampSeconds The time of the measurement.
+   * @param linearStdDev The standard deviation of the X and Y position in meters.
+   * @param angularStdDev The standard deviation of the heading in radians.
+   */
+  public void add(Pose2d pose, double timestampSeconds, double linearStdDev, double angularStdDev) {
+    if (size == timestamps.length) {
+      int capacity = size * 2;
+      timestamps = Arrays.copyOf(timestamps, capacity);
+      x = Arrays.copyOf(x, capacity);
+      y = Arrays.copyOf(y, capacity);
+      thetaRad = Arrays.copyOf(thetaRad, capacity);
+      linearStdDevs = Arrays.copyOf(linearStdDevs, capacity);
+      angularStdDevs = Arrays.copyOf(angularStdDevs, capacity);
+    }
+    timestamps[size] = timestampSeconds;
+    x[size] = pose.getX();
+    y[size] = pose.getY();
+    thetaRad[size] = pose.getRotation().getRadians();
+    linearStdDevs[size] = linearStdDev;
+    angularStdDevs[size] = angularStdDev;
+    size++;
+  }
+
+  /**
+   * Sorts the measurements from oldest to newest. The sort is stable, so measurements with the same
+   * timestamp keep the order they were added in.
+   */
+  public void sortByTimestamp() {
+    // Insertion sort, since batches are small and each camera's measurements are already in order
+    for (int i = 1; i < size; i++) {
+      double timestamp = timestamps[i];
+      double measurementX = x[i];
+      double measurementY = y[i];
+      double measurementTheta = thetaRad[i];
+      double linearStdDev = linearStdDevs[i];
+      double angularStdDev = angularStdDevs[i];
+      int j = i;
+      while (j > 0 && timestamps[j - 1] > timestamp) {
+        timestamps[j] = timestamps[j - 1];
+        x[j] = x[j - 1];
+        y[j] = y[j - 1];
+        thetaRad[j] = thetaRad[j - 1];
+        linearStdDevs[j] = linearStdDevs[j - 1];
+        angularStdDevs[j] = angularStdDevs[j - 1];
+        j--;
+      }
+      timestamps[j] = timestamp;
+      x[j] = measurementX;
+      y[j] = measurementY;
+      thetaRad[j] = measurementTheta;
+      linearStdDevs[j] = linearStdDev;
+      angularStdDevs[j] = angularStdDev;
+    }
+  }
+
+  /** Returns the number of measurements. */
+  public int size() {
+    return size;
+  }
+
+  /** Returns the time of a measurement in seconds. */
+  public double getTimestamp(int index) {
+    return timestamps[index];
+  }
+
+  /** Returns the measured X position in meters. */
+  public double getX(int index) {
+    return x[index];
+  }
+
+  /** Returns the measured Y position in meters. */
+  public double getY(int index) {
+    return y[index];
+  }
+
+  /** Returns the measured heading in radians. */
+  public double getThetaRad(int index) {
+    return thetaRad[index];
+  }
+
+  /** Returns the standard deviation of the X and Y position in meters. */
+  public double getLinearStdDev(int index) {
+    return linearStdDevs[index];
+  }
+
+  /** Returns the standard deviation of the heading in radians. */
+  public double getAngularStdDev(int index) {
+    return angularStdDevs[index];
+  }
+
+  /** Returns the measured pose. */
+  public Pose2d getPose(int index) {
+    return new Pose2d(x[index], y[index], new Rotation2d(thetaRad[index]));
+  }
+
+  /** Returns the standard deviations of X, Y and heading, as passed to a pose estimator. */
+  public Matrix<N3, N1> getStdDevs(int index) {
+    return VecBuilder.fill(linearStdDevs[index], linearStdDevs[index], angularStdDevs[index]);
+  }
+}
@@ -0,0 +1,133 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package frc.robot.util;
+
+import com.ctre.phoenix6.StatusCode;
+import com.ctre.phoenix6.configs.ParentConfiguration;
+import edu.wpi.first.wpilibj.Filesystem;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Properties;
+import java.util.function.Supplier;
+
+/**
+ * Skips applying device configurations that the device already has.
+ *
+ * <p>Devices keep their configuration through a power cycle, so after a brownout or a restart of
+ * robot code there is usually nothing to apply. Each time a configuration is applied, a hash of the
+ * requested configuration and a hash of the configuration read back from the device are saved in
+ * the operating directory. On the next boot, if the requested configuration hashes the same, the
+ * configuration is read back from the device and hashed again. Only if that matches the saved hash
+ * is applying skipped, so a replaced or reconfigured device is still configured.
+ */
+public final class ConfigFingerprints {
+  /** The most calls to the device one attempt of an {@link #applyIfChanged} step makes. */
+  public static final int MAX_CALLS_PER_ATTEMPT = 3; // Refresh, apply and refresh
+
+  private static final File FILE =
+      new File(Filesystem.getOperatingDirectory(), "device-config-fingerprints.properties");
+
+  private static Properties fingerprints = null;
+  private static int unchangedCount = 0;
+
+  private ConfigFingerprints() {}
+
+  /**
+   * Returns a configuration step for {@link DeviceConfigurator#configure} that applies a
+   * configuration only if the device does not already have it.
+   *
+   * @param device A unique name for the device, used to store its fingerprints.
+   * @param config The configuration to apply.
+   * @param apply Applies the configuration to the device.
+   * @param readback An empty configuration of the same type to read the device's into.
+   * @param refresh Reads the device's configuration into the readback configuration.
+   */
+  public static Supplier<StatusCode> applyIfChanged(
+      String device,
+      ParentConfiguration config,
+      Supplier<StatusCode> apply,
+      ParentConfiguration readback,
+      Supplier<StatusCode> refresh) {
+    return () -> {
+      String requestedHash = hash(config);
+      String appliedKey = device + ".requested";
+      String readbackKey = device + ".readback";
+
+      // Skip if this configuration was applied before and the device still reports it
+      if (requestedHash.equals(get(appliedKey))) {
+        if (refresh.get().isOK() && hash(readback).equals(get(readbackKey))) {
+          countUnchanged();
+          return StatusCode.OK;
+        }
+      }
+
+      StatusCode status = apply.get();
+      if (status.isOK() && refresh.get().isOK()) {
+        put(appliedKey, requestedHash, readbackKey, hash(readback));
+      }
+      return status;
+    };
+  }
+
+  /** Returns the number of configurations that were skipped because they were unchanged. */
+  public static synchronized int getUnchangedCount() {
+    return unchangedCount;
+  }
+
+  private static synchronized void countUnchanged() {
+    unchangedCount++;
+  }
+
+  private static synchronized String get(String key) {
+    return load().getProperty(key);
+  }
+
+  private static synchronized void put(
+      String requestedKey, String requestedHash, String readbackKey, String readbackHash) {
+    Properties properties = load();
+    properties.setProperty(requestedKey, requestedHash);
+    properties.setProperty(readbackKey, readbackHash);
+    try (OutputStream output = new FileOutputStream(FILE)) {
+      properties.store(output, "Hashes of the last configuration applied to each device");
+    } catch (IOException e) {
+      e.printStackTrace(); // Devices are configured on every boot until this can be saved
+    }
+  }
+
+  private static Properties load() {
+    if (fingerprints == null) {
+      fingerprints = new Properties();
+      if (FILE.exists()) {
+        try (InputStream input = new FileInputStream(FILE)) {
+          fingerprints.load(input);
+        } catch (IOException | IllegalArgumentException e) {
+          fingerprints.clear(); // Treat an unreadable file as empty, so every device is configured
+        }
+      }
+    }
+    return fingerprints;
+  }
+
+  private static String hash(ParentConfiguration config) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of()
+          .formatHex(digest.digest(config.serialize().getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException(e); // Every Java platform supports SHA-256
+    }
+  }
+}
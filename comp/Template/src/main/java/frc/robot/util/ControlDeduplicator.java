@@ -0,0 +1,79 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package frc.robot.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides whether a motor control request needs to be passed to the vendor library, skipping
+ * requests that repeat the last one sent.
+ *
+ * <p>Mechanisms typically set a setpoint every loop even when it has not changed, such as while
+ * stationary, at a constant cruise velocity or while stopped when disabled. Skipping only reduces
+ * CAN traffic for requests with an {@code UpdateFreqHz} of zero, which Phoenix 6 transmits once per
+ * {@code setControl} call; other requests are transmitted periodically regardless, and skipping
+ * them only saves the native call. A request is skipped if it has the same mode as the last one
+ * sent and its value is within a tolerance, unless the last send is older than the keep-alive
+ * period, which then acts as the refresh of the one-shot request.
+ *
+ * <p>Counts of sent and skipped requests are kept across all instances, so they can be reported in
+ * one place.
+ */
+public class ControlDeduplicator {
+  private static final AtomicLong totalSent = new AtomicLong();
+  private static final AtomicLong totalSkipped = new AtomicLong();
+
+  private final double tolerance;
+  private final double keepAliveSecs;
+  private int lastMode = -1;
+  private double lastValue = 0.0;
+  private double lastSentTimestamp = Double.NEGATIVE_INFINITY;
+
+  /**
+   * Creates a new deduplicator for one device.
+   *
+   * @param tolerance The largest change in value that is still considered unchanged.
+   * @param keepAliveSecs The longest time to go without sending a request.
+   */
+  public ControlDeduplicator(double tolerance, double keepAliveSecs) {
+    this.tolerance = tolerance;
+    this.keepAliveSecs = keepAliveSecs;
+  }
+
+  /**
+   * Returns whether a request should be sent, recording it as sent if so.
+   *
+   * @param mode An identifier for the type of request, such as open loop or closed loop. Requests
+   *     of different modes are never considered unchanged.
+   * @param value The setpoint of the request.
+   * @param timestamp The current time in seconds.
+   */
+  public boolean shouldSend(int mode, double value, double timestamp) {
+    if (mode == lastMode
+        && Math.abs(value - lastValue) <= tolerance
+        && timestamp - lastSentTimestamp < keepAliveSecs) {
+      totalSkipped.incrementAndGet();
+      return false;
+    }
+    lastMode = mode;
+    lastValue = value;
+    lastSentTimestamp = timestamp;
+    totalSent.incrementAndGet();
+    return true;
+  }
+
+  /** Returns the number of requests sent by all instances. */
+  public static long getTotalSent() {
+    return totalSent.get();
+  }
+
+  /** Returns the number of requests skipped by all instances. */
+  public static long getTotalSkipped() {
+    return totalSkipped.get();
+  }
+}
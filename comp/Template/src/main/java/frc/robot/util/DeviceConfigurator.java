@@ -0,0 +1,173 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package frc.robot.util;
+
+import com.ctre.phoenix6.StatusCode;
+import edu.wpi.first.wpilibj.Alert;
+import edu.wpi.first.wpilibj.Alert.AlertType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Configures devices concurrently at startup.
+ *
+ * <p>Applying a configuration blocks until the device acknowledges it, so configuring every device
+ * in turn makes startup take the sum of all of their round trips and retries. Instead, each IO
+ * implementation submits the configuration steps for its devices with {@link #configure}, which
+ * returns immediately. The steps for one device run in order, while different devices are
+ * configured in parallel. {@link #awaitAll()} then waits for every submitted device and logs how
+ * long each took and how many attempts it needed under {@code DeviceConfig}.
+ *
+ * <p>The wait is bounded by the worst case of the submitted steps: every attempt of every step
+ * timing out, for each wave of devices handed to the threads. A device that has still not finished
+ * by then is stuck, and is reported as failed while it keeps running in the background. {@link
+ * #isFinished()} reports when it is done, so work that must not overlap configuration can wait.
+ */
+public final class DeviceConfigurator {
+  private static final int THREAD_COUNT = 6;
+  private static final double AWAIT_MARGIN_SECS = 0.5; // Scheduling and hashing between calls
+
+  private static final List<Result> results = new ArrayList<>();
+  private static final AtomicInteger unfinishedCount = new AtomicInteger();
+  private static ExecutorService executor = null;
+  private static long firstSubmitNanos = 0;
+
+  private DeviceConfigurator() {}
+
+  /**
+   * Submits the configuration steps for a device, to run in order on a background thread. Each
+   * step is retried until it succeeds or runs out of attempts, and later steps still run if an
+   * earlier one fails.
+   *
+   * @param device A unique name for the device, used for logging.
+   * @param maxAttempts The number of attempts for each step.
+   * @param attemptTimeoutSecs The longest one attempt of any step can take, the sum of the
+   *     timeouts of the calls it makes to the device.
+   * @param steps The steps, such as applying a configuration or setting a position.
+   */
+  @SafeVarargs
+  public static synchronized void configure(
+      String device,
+      int maxAttempts,
+      double attemptTimeoutSecs,
+      Supplier<StatusCode>... steps) {
+    if (executor == null) {
+      executor =
+          Executors.newFixedThreadPool(
+              THREAD_COUNT,
+              runnable -> {
+                Thread thread = new Thread(runnable, "DeviceConfigurator");
+                thread.setDaemon(true);
+                return thread;
+              });
+      firstSubmitNanos = System.nanoTime();
+    }
+    Result result = new Result(device, steps.length * maxAttempts * attemptTimeoutSecs);
+    results.add(result);
+    unfinishedCount.incrementAndGet();
+    executor.execute(
+        () -> {
+          long start = System.nanoTime();
+          try {
+            boolean ok = true;
+            for (Supplier<StatusCode> step : steps) {
+              boolean stepOk = false;
+              for (int i = 0; i < maxAttempts && !stepOk; i++) {
+                result.attempts++;
+                stepOk = step.get().isOK();
+              }
+              ok &= stepOk;
+            }
+            result.ok = ok;
+          } finally {
+            result.durationNanos = System.nanoTime() - start;
+            result.done.countDown();
+            unfinishedCount.decrementAndGet();
+          }
+        });
+  }
+
+  /**
+   * Waits for every submitted device to finish configuring and logs the results. The wait is
+   * bounded by the worst case of the submitted steps. Devices that have not finished by then keep
+   * configuring in the background and are reported as failed.
+   *
+   * @return Whether every device was configured successfully.
+   */
+  public static synchronized boolean awaitAll() {
+    if (executor == null) {
+      return true;
+    }
+
+    // Each thread starts its next device at most one device's worst case after its last one
+    double maxDeviceSecs = 0.0;
+    for (Result result : results) {
+      maxDeviceSecs = Math.max(maxDeviceSecs, result.maxSecs);
+    }
+    int waves = (results.size() + THREAD_COUNT - 1) / THREAD_COUNT;
+    double timeoutSecs = waves * maxDeviceSecs + AWAIT_MARGIN_SECS;
+    long deadline = System.nanoTime() + (long) (timeoutSecs * 1e9); // After the last submit
+    boolean allOk = true;
+    for (Result result : results) {
+      boolean finished;
+      try {
+        finished =
+            result.done.await(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        finished = false;
+      }
+      boolean ok = finished && result.ok;
+      allOk &= ok;
+      String key = "DeviceConfig/" + result.device;
+      Logger.recordOutput(key + "/OK", ok);
+      Logger.recordOutput(key + "/Attempts", finished ? result.attempts : -1);
+      Logger.recordOutput(key + "/DurationMs", finished ? result.durationNanos / 1e6 : -1.0);
+      if (!ok) {
+        new Alert("Failed to configure " + result.device + ".", AlertType.kError).set(true);
+      }
+    }
+    Logger.recordOutput("DeviceConfig/TotalMs", (System.nanoTime() - firstSubmitNanos) / 1e6);
+    Logger.recordOutput("DeviceConfig/TimeoutMs", timeoutSecs * 1000.0);
+    Logger.recordOutput("DeviceConfig/DeviceCount", results.size());
+    Logger.recordOutput("DeviceConfig/UnchangedConfigs", ConfigFingerprints.getUnchangedCount());
+
+    // Threads of unfinished devices exit once they finish
+    executor.shutdown();
+    executor = null;
+    results.clear();
+    return allOk;
+  }
+
+  /** Returns whether every submitted device has finished configuring, including stuck ones. */
+  public static boolean isFinished() {
+    return unfinishedCount.get() == 0;
+  }
+
+  /** The outcome of configuring one device, written by the configuring thread. */
+  private static class Result {
+    private final String device;
+    private final double maxSecs;
+    private final CountDownLatch done = new CountDownLatch(1);
+    private int attempts = 0;
+    private boolean ok = false;
+    private long durationNanos = 0;
+
+    private Result(String device, double maxSecs) {
+      this.device = device;
+      this.maxSecs = maxSecs;
+    }
+  }
+}
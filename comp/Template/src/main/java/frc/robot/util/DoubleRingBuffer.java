@@ -0,0 +1,139 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package frc.robot.util;
+
+/**
+ * Fixed-capacity ring buffer of primitive doubles for handing samples from one producer thread to
+ * one consumer thread without boxing or locking.
+ *
+ * <p>Exactly one thread may call {@link #offer(double)} and exactly one (possibly different) thread
+ * may call the drain methods. Samples offered while the buffer is full are dropped and counted.
+ *
+ * <p>The consumer may call {@link #snapshot()} to pin the set of samples that later drains will
+ * return. This allows several buffers filled in lockstep to be read as one consistent batch while
+ * the producer keeps writing.
+ */
+public class DoubleRingBuffer {
+  private final double[] values;
+
+  // Written only by the producer
+  private volatile long head = 0;
+  // Written only by the consumer
+  private volatile long tail = 0;
+  private long snapshotHead = -1;
+  private volatile long droppedCount = 0;
+
+  /**
+   * Creates a new ring buffer.
+   *
+   * @param capacity Maximum number of samples to hold.
+   */
+  public DoubleRingBuffer(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be positive");
+    }
+    values = new double[capacity];
+  }
+
+  /**
+   * Adds a sample to the buffer. Must only be called from the producer thread.
+   *
+   * @return Whether the sample was stored (false if the buffer was full).
+   */
+  public boolean offer(double value) {
+    long currentHead = head;
+    if (currentHead - tail >= values.length) {
+      droppedCount++;
+      return false;
+    }
+    values[(int) (currentHead % values.length)] = value;
+    head = currentHead + 1; // Publishes the value to the consumer
+    return true;
+  }
+
+  /**
+   * Returns the most recently stored sample, or zero if none has been stored. Must only be called
+   * from the producer thread.
+   */
+  public double getLastOffered() {
+    long currentHead = head;
+    return currentHead > 0 ? values[(int) ((currentHead - 1) % values.length)] : 0.0;
+  }
+
+  /**
+   * Records a sample that the producer chose not to store, for example because a buffer filled in
+   * lockstep with this one was full. Must only be called from the producer thread.
+   */
+  public void recordDrop() {
+    droppedCount++;
+  }
+
+  /** Returns whether another sample can be stored. Must only be called from the producer thread. */
+  public boolean hasRemainingCapacity() {
+    return head - tail < values.length;
+  }
+
+  /**
+   * Pins the samples currently available so that drains return no samples offered after this call.
+   * Must only be called from the consumer thread. Once called, every later drain is bounded by the
+   * most recent snapshot.
+   */
+  public void snapshot() {
+    snapshotHead = head;
+  }
+
+  /**
+   * Moves all available samples into the destination array, oldest first. Must only be called from
+   * the consumer thread.
+   *
+   * @param destination Array to fill, starting at index zero.
+   * @return The number of samples copied.
+   */
+  public int drainTo(double[] destination) {
+    return drainTo(destination, destination.length);
+  }
+
+  /**
+   * Moves up to the specified number of samples into the destination array, oldest first. Must only
+   * be called from the consumer thread.
+   *
+   * @param destination Array to fill, starting at index zero.
+   * @param maxCount Maximum number of samples to copy.
+   * @return The number of samples copied.
+   */
+  public int drainTo(double[] destination, int maxCount) {
+    long currentTail = tail;
+    long available = (snapshotHead >= 0 ? snapshotHead : head) - currentTail;
+    int count = (int) Math.max(0, Math.min(available, Math.min(maxCount, destination.length)));
+    for (int i = 0; i < count; i++) {
+      destination[i] = values[(int) ((currentTail + i) % values.length)];
+    }
+    tail = currentTail + count; // Releases the slots to the producer
+    return count;
+  }
+
+  /** Discards all available samples. Must only be called from the consumer thread. */
+  public void clear() {
+    tail = snapshotHead >= 0 ? Math.max(tail, snapshotHead) : head;
+  }
+
+  /** Returns the number of samples available to the consumer. */
+  public int size() {
+    return (int) (head - tail);
+  }
+
+  /** Returns the maximum number of samples the buffer can hold. */
+  public int capacity() {
+    return values.length;
+  }
+
+  /** Returns the total number of samples dropped because the buffer was full. */
+  public long getDroppedCount() {
+    return droppedCount;
+  }
+}
@@ -0,0 +1,184 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package frc.robot.util;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import java.util.Optional;
+
+/**
+ * Fixed-capacity history of timestamped poses and robot-relative velocities, stored in primitive
+ * arrays and queried by time with a binary search.
+ *
+ * <p>Samples must be added in increasing time order; once the history is full, each new sample
+ * replaces the oldest. Queries between two samples interpolate linearly (taking the shorter way
+ * around for the heading), and queries outside the history return the oldest or newest sample, as
+ * in {@link edu.wpi.first.math.interpolation.TimeInterpolatableBuffer}. Adding samples does not
+ * allocate. This class is not thread-safe.
+ */
+public class PoseHistory {
+  private final double[] timestamps;
+  private final double[] x;
+  private final double[] y;
+  private final double[] thetaRad;
+  private final double[] vx;
+  private final double[] vy;
+  private final double[] omega;
+  private int start = 0;
+  private int size = 0;
+
+  /**
+   * Creates a new history.
+   *
+   * @param capacity Maximum number of samples to hold.
+   */
+  public PoseHistory(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be positive");
+    }
+    timestamps = new double[capacity];
+    x = new double[capacity];
+    y = new double[capacity];
+    thetaRad = new double[capacity];
+    vx = new double[capacity];
+    vy = new double[capacity];
+    omega = new double[capacity];
+  }
+
+  /**
+   * Adds a sample. A sample with the same timestamp as the newest replaces it, and a sample older
+   * than the newest is ignored.
+   *
+   * @param timestamp The time of the sample in seconds.
+   * @param x The X position in meters.
+   * @param y The Y position in meters.
+   * @param thetaRad The heading in radians.
+   * @param vx The robot-relative forward velocity in meters/sec.
+   * @param vy The robot-relative sideways velocity in meters/sec.
+   * @param omega The angular velocity in radians/sec.
+   */
+  public void addSample(
+      double timestamp, double x, double y, double thetaRad, double vx, double vy, double omega) {
+    int index;
+    if (size > 0 && timestamp <= timestamps[index(size - 1)]) {
+      if (timestamp < timestamps[index(size - 1)]) {
+        return;
+      }
+      index = index(size - 1);
+    } else if (size == timestamps.length) {
+      index = start;
+      start = (start + 1) % timestamps.length;
+    } else {
+      index = index(size);
+      size++;
+    }
+    timestamps[index] = timestamp;
+    this.x[index] = x;
+    this.y[index] = y;
+    this.thetaRad[index] = thetaRad;
+    this.vx[index] = vx;
+    this.vy[index] = vy;
+    this.omega[index] = omega;
+  }
+
+  /** Removes all samples. */
+  public void clear() {
+    start = 0;
+    size = 0;
+  }
+
+  /** Returns the number of samples held. */
+  public int size() {
+    return size;
+  }
+
+  /** Returns the timestamp of the oldest sample in seconds, or NaN if the history is empty. */
+  public double getOldestTimestamp() {
+    return size > 0 ? timestamps[start] : Double.NaN;
+  }
+
+  /** Returns the timestamp of the newest sample in seconds, or NaN if the history is empty. */
+  public double getNewestTimestamp() {
+    return size > 0 ? timestamps[index(size - 1)] : Double.NaN;
+  }
+
+  /**
+   * Interpolates the history at the specified time without allocating.
+   *
+   * @param timestamp The time to sample in seconds.
+   * @param destination Receives X, Y, heading, forward velocity, sideways velocity and angular
+   *     velocity, in that order.
+   * @return Whether the history had any samples. The destination is unchanged if not.
+   */
+  public boolean sample(double timestamp, double[] destination) {
+    if (size == 0) {
+      return false;
+    }
+
+    // Find the first sample at or after the timestamp
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (timestamps[index(mid)] < timestamp) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+
+    if (low == 0 || low == size) {
+      int index = index(low == 0 ? 0 : size - 1);
+      destination[0] = x[index];
+      destination[1] = y[index];
+      destination[2] = thetaRad[index];
+      destination[3] = vx[index];
+      destination[4] = vy[index];
+      destination[5] = omega[index];
+      return true;
+    }
+    int bottom = index(low - 1);
+    int top = index(low);
+    double t = (timestamp - timestamps[bottom]) / (timestamps[top] - timestamps[bottom]);
+    destination[0] = x[bottom] + (x[top] - x[bottom]) * t;
+    destination[1] = y[bottom] + (y[top] - y[bottom]) * t;
+    destination[2] =
+        MathUtil.angleModulus(
+            thetaRad[bottom] + MathUtil.angleModulus(thetaRad[top] - thetaRad[bottom]) * t);
+    destination[3] = vx[bottom] + (vx[top] - vx[bottom]) * t;
+    destination[4] = vy[bottom] + (vy[top] - vy[bottom]) * t;
+    destination[5] = omega[bottom] + (omega[top] - omega[bottom]) * t;
+    return true;
+  }
+
+  /** Returns the pose at the specified time, or empty if the history is empty. */
+  public Optional<Pose2d> getPoseAt(double timestamp) {
+    double[] sample = new double[6];
+    if (!sample(timestamp, sample)) {
+      return Optional.empty();
+    }
+    return Optional.of(new Pose2d(sample[0], sample[1], new Rotation2d(sample[2])));
+  }
+
+  /**
+   * Returns the robot-relative velocity at the specified time, or empty if the history is empty.
+   */
+  public Optional<ChassisSpeeds> getVelocityAt(double timestamp) {
+    double[] sample = new double[6];
+    if (!sample(timestamp, sample)) {
+      return Optional.empty();
+    }
+    return Optional.of(new ChassisSpeeds(sample[3], sample[4], sample[5]));
+  }
+
+  private int index(int i) {
+    return (start + i) % timestamps.length;
+  }
+}
@@ -0,0 +1,69 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package frc.robot.util;
+
+import java.lang.invoke.VarHandle;
+
+/**
+ * A timestamped 2D pose published by one writer thread and readable from any thread without
+ * locking or allocation.
+ *
+ * <p>The fields are guarded by a sequence lock: the writer makes the sequence odd while it updates
+ * the fields, and readers retry if the sequence was odd or changed while they were reading. The
+ * writer never waits for readers.
+ */
+public class PoseSnapshot {
+  // Odd while the writer is updating the fields, even otherwise
+  private volatile long sequence = 0;
+  private double timestamp = Double.NaN;
+  private double x = 0.0;
+  private double y = 0.0;
+  private double thetaRad = 0.0;
+
+  /**
+   * Publishes a new pose. Must only be called from a single writer thread.
+   *
+   * @param timestamp The time of the pose in seconds.
+   * @param x The X position in meters.
+   * @param y The Y position in meters.
+   * @param thetaRad The heading in radians.
+   */
+  public void write(double timestamp, double x, double y, double thetaRad) {
+    long current = sequence;
+    sequence = current + 1;
+    VarHandle.storeStoreFence(); // Keeps the field writes after the odd sequence
+    this.timestamp = timestamp;
+    this.x = x;
+    this.y = y;
+    this.thetaRad = thetaRad;
+    sequence = current + 2;
+  }
+
+  /**
+   * Reads a consistent copy of the latest pose.
+   *
+   * @param destination Receives the timestamp, X, Y and heading, in that order. The timestamp is
+   *     NaN if no pose has been written.
+   */
+  public void read(double[] destination) {
+    while (true) {
+      long current = sequence;
+      if ((current & 1) == 0) {
+        destination[0] = timestamp;
+        destination[1] = x;
+        destination[2] = y;
+        destination[3] = thetaRad;
+        VarHandle.acquireFence(); // Keeps the field reads before the sequence check
+        if (sequence == current) {
+          return;
+        }
+      }
+      Thread.onSpinWait();
+    }
+  }
+}
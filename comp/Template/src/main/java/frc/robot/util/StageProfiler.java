@@ -0,0 +1,119 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package frc.robot.util;
+
+import frc.robot.Constants;
+import java.util.Arrays;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Times the stages of a periodic method with {@link System#nanoTime()} checkpoints.
+ *
+ * <p>Call {@link #start()} at the top of the method, {@link #mark(int)} at the end of each stage
+ * and {@link #finish()} at the end of the method. The durations of the most recent cycles are kept
+ * in primitive rings, and the median, 99th percentile and maximum of each stage (and of the whole
+ * method) are logged under {@code Profiler/<name>} once every 50 cycles rather than every cycle.
+ *
+ * <p>Profiling is enabled by {@link Constants#profileStages}. When it is disabled, every method
+ * returns immediately.
+ */
+public class StageProfiler {
+  private static final int WINDOW_SIZE = 250;
+  private static final int PUBLISH_PERIOD_CYCLES = 50;
+
+  private final boolean enabled = Constants.profileStages;
+  private final int stageCount;
+  private final long[][] durations; // Per stage, with the whole cycle last
+  private final long[] sorted = new long[WINDOW_SIZE];
+  private final String[] p50Keys;
+  private final String[] p99Keys;
+  private final String[] maxKeys;
+  private int windowIndex = 0;
+  private int windowCount = 0;
+  private int cyclesSincePublish = 0;
+  private long cycleStartNanos;
+  private long lastCheckpointNanos;
+
+  /**
+   * Creates a new profiler.
+   *
+   * @param name The name to log under.
+   * @param stageNames The name of each stage, in the order of their indices.
+   */
+  public StageProfiler(String name, String... stageNames) {
+    stageCount = stageNames.length;
+    TelemetryTiers.register(TelemetryTiers.Tier.DEBUG, "Profiler/" + name);
+    durations = new long[stageCount + 1][WINDOW_SIZE];
+    p50Keys = new String[stageCount + 1];
+    p99Keys = new String[stageCount + 1];
+    maxKeys = new String[stageCount + 1];
+    for (int i = 0; i <= stageCount; i++) {
+      String key = "Profiler/" + name + "/" + (i < stageCount ? stageNames[i] : "Total");
+      p50Keys[i] = key + "/P50Ms";
+      p99Keys[i] = key + "/P99Ms";
+      maxKeys[i] = key + "/MaxMs";
+    }
+  }
+
+  /** Starts a cycle. */
+  public void start() {
+    if (!enabled) {
+      return;
+    }
+    cycleStartNanos = System.nanoTime();
+    lastCheckpointNanos = cycleStartNanos;
+    for (int i = 0; i < stageCount; i++) {
+      durations[i][windowIndex] = 0; // Stages that are skipped this cycle took no time
+    }
+  }
+
+  /**
+   * Ends a stage, adding the time since the previous checkpoint to it. A stage may be marked
+   * several times per cycle.
+   *
+   * @param stage The index of the stage.
+   */
+  public void mark(int stage) {
+    if (!enabled) {
+      return;
+    }
+    long now = System.nanoTime();
+    durations[stage][windowIndex] += now - lastCheckpointNanos;
+    lastCheckpointNanos = now;
+  }
+
+  /** Ends a cycle, publishing the statistics if it is time to. */
+  public void finish() {
+    if (!enabled) {
+      return;
+    }
+    durations[stageCount][windowIndex] = System.nanoTime() - cycleStartNanos;
+    windowIndex = (windowIndex + 1) % WINDOW_SIZE;
+    windowCount = Math.min(windowCount + 1, WINDOW_SIZE);
+    if (++cyclesSincePublish >= PUBLISH_PERIOD_CYCLES) {
+      cyclesSincePublish = 0;
+      publish();
+    }
+  }
+
+  private void publish() {
+    for (int i = 0; i <= stageCount; i++) {
+      System.arraycopy(durations[i], 0, sorted, 0, windowCount);
+      Arrays.sort(sorted, 0, windowCount);
+      Logger.recordOutput(p50Keys[i], percentile(0.5) / 1e6);
+      Logger.recordOutput(p99Keys[i], percentile(0.99) / 1e6);
+      Logger.recordOutput(maxKeys[i], sorted[windowCount - 1] / 1e6);
+    }
+  }
+
+  /** Returns the nearest-rank percentile of the sorted window. */
+  private long percentile(double fraction) {
+    int rank = (int) Math.ceil(fraction * windowCount);
+    return sorted[Math.max(rank, 1) - 1];
+  }
+}
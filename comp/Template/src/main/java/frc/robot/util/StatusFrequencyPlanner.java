@@ -0,0 +1,228 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package frc.robot.util;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.CANBus;
+import com.ctre.phoenix6.hardware.ParentDevice;
+import edu.wpi.first.wpilibj.Alert;
+import edu.wpi.first.wpilibj.Alert.AlertType;
+import java.util.ArrayList;
+import java.util.List;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Plans the update frequencies of Phoenix status signals against a CAN bus utilization budget.
+ *
+ * <p>IO implementations register the signals they read with a {@link Priority} and a range of
+ * acceptable frequencies instead of setting frequencies themselves. {@link #apply(double)} then
+ * plans each bus: every signal gets its minimum frequency, and the rest of the budget is handed
+ * out in priority order, so odometry keeps its rate and lower priority signals slow down as more
+ * mechanisms are added. Signals of the same priority share what is left in proportion to their
+ * ranges. Finally, every other signal of the registered devices is disabled with {@link
+ * ParentDevice#optimizeBusUtilizationForAll}.
+ *
+ * <p>Each signal is costed as its own frame, which overestimates the load of signals that share a
+ * frame, so the plan errs on the safe side. The planned budget is logged under {@code
+ * StatusPlan/<bus>}.
+ */
+public class StatusFrequencyPlanner {
+  /** Approximate time on a 1 Mbit/s CAN 2.0 bus of one extended frame with 8 data bytes. */
+  static final double FRAME_SECS_CAN_2 = 150e-6;
+
+  /** Approximate time on a CAN FD bus (1 Mbit/s arbitration, 8 Mbit/s data) of one frame. */
+  static final double FRAME_SECS_CAN_FD = 80e-6;
+
+  /** Lowest and highest frequencies Phoenix accepts for an enabled signal. */
+  static final double MIN_FREQUENCY = 4.0;
+
+  static final double MAX_FREQUENCY = 1000.0;
+
+  /** How much a group of signals matters, highest first. */
+  public enum Priority {
+    /** Signals sampled by the odometry thread. */
+    ODOMETRY,
+    /** Signals used by the robot code to make decisions, such as velocities. */
+    FEEDBACK,
+    /** Signals that are only logged, such as voltages and currents. */
+    TELEMETRY
+  }
+
+  /** A group of signals that share a priority and a frequency range. */
+  static class Request {
+    final Priority priority;
+    final double minHz;
+    final double maxHz;
+    final BaseStatusSignal[] signals;
+
+    Request(Priority priority, double minHz, double maxHz, BaseStatusSignal... signals) {
+      this.priority = priority;
+      this.minHz = Math.max(minHz, MIN_FREQUENCY);
+      this.maxHz = Math.min(Math.max(maxHz, this.minHz), MAX_FREQUENCY);
+      this.signals = signals;
+    }
+  }
+
+  private final List<BusPlan> buses = new ArrayList<>();
+
+  private static StatusFrequencyPlanner instance = null;
+
+  public static StatusFrequencyPlanner getInstance() {
+    if (instance == null) {
+      instance = new StatusFrequencyPlanner();
+    }
+    return instance;
+  }
+
+  private StatusFrequencyPlanner() {}
+
+  /**
+   * Registers a group of signals of one device.
+   *
+   * @param bus The bus of the device.
+   * @param device The device, whose other signals are disabled when the plan is applied, or null to
+   *     leave them enabled.
+   * @param priority The priority of the signals.
+   * @param minHz The lowest acceptable frequency, which is always granted.
+   * @param maxHz The highest useful frequency.
+   * @param signals The signals.
+   */
+  public void register(
+      CANBus bus,
+      ParentDevice device,
+      Priority priority,
+      double minHz,
+      double maxHz,
+      BaseStatusSignal... signals) {
+    BusPlan plan = getBus(bus);
+    plan.requests.add(new Request(priority, minHz, maxHz, signals));
+    if (device != null && !plan.devices.contains(device)) {
+      plan.devices.add(device);
+    }
+  }
+
+  /**
+   * Plans and applies the frequencies of every registered signal, then disables all other signals
+   * of the registered devices.
+   *
+   * @param targetUtilization The fraction of each bus that status signals may use.
+   */
+  public void apply(double targetUtilization) {
+    for (BusPlan bus : buses) {
+      double frameSecs = bus.isCANFD ? FRAME_SECS_CAN_FD : FRAME_SECS_CAN_2;
+      double[] frequencies = plan(bus.requests, targetUtilization / frameSecs);
+      for (int i = 0; i < frequencies.length; i++) {
+        BaseStatusSignal.setUpdateFrequencyForAll(frequencies[i], bus.requests.get(i).signals);
+      }
+      ParentDevice.optimizeBusUtilizationForAll(bus.devices.toArray(new ParentDevice[0]));
+
+      // Log the budget
+      String key = "StatusPlan/" + bus.logName;
+      double minimumUtilization = getFramesPerSec(bus.requests, null) * frameSecs;
+      double plannedUtilization = getFramesPerSec(bus.requests, frequencies) * frameSecs;
+      Logger.recordOutput(key + "/TargetUtilization", targetUtilization);
+      Logger.recordOutput(key + "/MinimumUtilization", minimumUtilization);
+      Logger.recordOutput(key + "/PlannedUtilization", plannedUtilization);
+      for (Priority priority : Priority.values()) {
+        double lowest = Double.NaN;
+        for (int i = 0; i < frequencies.length; i++) {
+          if (bus.requests.get(i).priority == priority && !(frequencies[i] >= lowest)) {
+            lowest = frequencies[i];
+          }
+        }
+        if (!Double.isNaN(lowest)) {
+          Logger.recordOutput(key + "/" + priority + "/LowestHz", lowest);
+        }
+      }
+      if (minimumUtilization > targetUtilization) {
+        new Alert(
+                "Status signals on the "
+                    + bus.logName
+                    + " bus exceed the utilization target even at their minimum rates.",
+                AlertType.kWarning)
+            .set(true);
+      }
+    }
+  }
+
+  /**
+   * Plans the frequency of each request. Every request gets its minimum frequency, then the rest
+   * of the budget is handed out in priority order. Requests of the same priority share what is
+   * left in proportion to their ranges.
+   *
+   * @param requests The requests on one bus.
+   * @param budgetFramesPerSec The number of frames per second the signals may use.
+   * @return The frequency of each request, in the order of the requests.
+   */
+  static double[] plan(List<Request> requests, double budgetFramesPerSec) {
+    double[] frequencies = new double[requests.size()];
+    double remaining = budgetFramesPerSec;
+    for (int i = 0; i < frequencies.length; i++) {
+      frequencies[i] = requests.get(i).minHz;
+      remaining -= frequencies[i] * requests.get(i).signals.length;
+    }
+
+    for (Priority priority : Priority.values()) {
+      double wanted = 0.0;
+      for (Request request : requests) {
+        if (request.priority == priority) {
+          wanted += (request.maxHz - request.minHz) * request.signals.length;
+        }
+      }
+      if (wanted <= 0.0) {
+        continue;
+      }
+      double fraction = Math.max(Math.min(remaining / wanted, 1.0), 0.0);
+      for (int i = 0; i < frequencies.length; i++) {
+        Request request = requests.get(i);
+        if (request.priority == priority) {
+          frequencies[i] = request.minHz + fraction * (request.maxHz - request.minHz);
+        }
+      }
+      remaining -= fraction * wanted;
+    }
+    return frequencies;
+  }
+
+  /** Returns the frames per second of the requests, at their minimums if frequencies is null. */
+  static double getFramesPerSec(List<Request> requests, double[] frequencies) {
+    double total = 0.0;
+    for (int i = 0; i < requests.size(); i++) {
+      double frequency = frequencies == null ? requests.get(i).minHz : frequencies[i];
+      total += frequency * requests.get(i).signals.length;
+    }
+    return total;
+  }
+
+  /** Returns the plan for the specified bus, creating it if necessary. */
+  private BusPlan getBus(CANBus bus) {
+    for (BusPlan plan : buses) {
+      if (plan.name.equals(bus.getName())) {
+        return plan;
+      }
+    }
+    BusPlan plan = new BusPlan(bus.getName(), bus.isNetworkFD());
+    buses.add(plan);
+    return plan;
+  }
+
+  /** The registered signals and devices on a single CAN bus. */
+  private static class BusPlan {
+    private final String name;
+    private final String logName;
+    private final boolean isCANFD;
+    private final List<Request> requests = new ArrayList<>();
+    private final List<ParentDevice> devices = new ArrayList<>();
+
+    private BusPlan(String name, boolean isCANFD) {
+      this.name = name;
+      this.logName = name.isEmpty() ? "rio" : name;
+      this.isCANFD = isCANFD;
+    }
+  }
+}
@@ -0,0 +1,195 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package frc.robot.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.littletonrobotics.junction.LogDataReceiver;
+import org.littletonrobotics.junction.LogTable;
+import org.littletonrobotics.junction.LogTable.LogValue;
+
+/**
+ * Assigns logged keys to telemetry tiers and thins out what is sent to the dashboard by tier.
+ *
+ * <p>Subsystems register the prefixes of the keys they log with a {@link Tier}. Network receivers
+ * wrapped with {@link #filter(LogDataReceiver)} then receive each key every cycle, every few
+ * cycles or never, depending on its tier and the current {@link Level}. Receivers that are not
+ * wrapped, such as the USB log, still receive every key every cycle, so logs stay complete for
+ * replay.
+ */
+public final class TelemetryTiers {
+  /** How important a key is to watch live. */
+  public enum Tier {
+    /** Needed to run a match, such as the robot pose. */
+    CRITICAL,
+    /** Useful to watch, the default for keys that are not registered. */
+    STANDARD,
+    /** High-volume data for debugging, such as per-module states and raw odometry samples. */
+    DEBUG
+  }
+
+  /** How much to send to wrapped receivers. */
+  public enum Level {
+    /** Every key, every cycle. */
+    FULL,
+    /** Critical keys every cycle and all other keys every few cycles. */
+    DECIMATED,
+    /** Critical keys every cycle, standard keys every few cycles and no debug keys. */
+    MATCH
+  }
+
+  /** Number of cycles between sends of decimated keys (10 Hz with a 20 ms loop). */
+  public static final int DECIMATION_CYCLES = 5;
+
+  private static final Map<String, Tier> prefixTiers = new ConcurrentHashMap<>();
+  private static volatile int registryVersion = 0;
+  private static volatile Level level = Level.FULL;
+  private static volatile boolean matchMode = false;
+
+  private TelemetryTiers() {}
+
+  /**
+   * Assigns keys to a tier. If several registered prefixes match a key, the longest one applies.
+   *
+   * @param tier The tier of the keys.
+   * @param keyPrefixes Prefixes of the keys as passed to the logger, such as "SwerveStates".
+   */
+  public static void register(Tier tier, String... keyPrefixes) {
+    for (String prefix : keyPrefixes) {
+      prefixTiers.put(prefix, tier);
+    }
+    registryVersion++;
+  }
+
+  /** Returns the tier of a key as passed to the logger. */
+  public static Tier getTier(String key) {
+    Tier tier = Tier.STANDARD;
+    int matchLength = -1;
+    for (Map.Entry<String, Tier> entry : prefixTiers.entrySet()) {
+      String prefix = entry.getKey();
+      if (prefix.length() > matchLength && key.startsWith(prefix)) {
+        tier = entry.getValue();
+        matchLength = prefix.length();
+      }
+    }
+    return tier;
+  }
+
+  /** Sets the level used outside of matches. */
+  public static void setLevel(Level newLevel) {
+    level = newLevel;
+  }
+
+  /** Sets whether a match is running, which forces the match level. */
+  public static void setMatchMode(boolean isMatch) {
+    matchMode = isMatch;
+  }
+
+  /** Returns the level currently applied to wrapped receivers. */
+  public static Level getLevel() {
+    return matchMode ? Level.MATCH : level;
+  }
+
+  /**
+   * Returns whether a key of the specified tier is sent.
+   *
+   * @param tier The tier of the key.
+   * @param level The current level.
+   * @param decimatedCycle Whether this cycle sends decimated keys.
+   */
+  static boolean isSent(Tier tier, Level level, boolean decimatedCycle) {
+    switch (level) {
+      case FULL:
+        return true;
+      case DECIMATED:
+        return tier == Tier.CRITICAL || decimatedCycle;
+      case MATCH:
+        return tier == Tier.CRITICAL || (tier == Tier.STANDARD && decimatedCycle);
+      default:
+        return true;
+    }
+  }
+
+  /**
+   * Wraps a receiver so that it only receives the keys sent at the current level.
+   *
+   * @param receiver The receiver to wrap, normally an NT4Publisher.
+   * @return The wrapped receiver, to pass to the logger.
+   */
+  public static LogDataReceiver filter(LogDataReceiver receiver) {
+    return new FilteredReceiver(receiver);
+  }
+
+  /** A key in a log table without its leading slash, and its tier. */
+  private static record TableKey(String key, Tier tier) {}
+
+  /**
+   * Forwards a filtered copy of each table. Runs on the logger's receiver thread.
+   *
+   * <p>Each copy is a new table, since receivers such as the NT4Publisher keep the last table they
+   * were given to find changed values. Tables with every key sent are forwarded without a copy.
+   */
+  private static class FilteredReceiver implements LogDataReceiver {
+    private final LogDataReceiver receiver;
+    private final Map<String, TableKey> tableKeys = new HashMap<>(); // Cached by full key
+    private int tableKeysVersion = -1;
+    private long cycle = 0;
+
+    private FilteredReceiver(LogDataReceiver receiver) {
+      this.receiver = receiver;
+    }
+
+    @Override
+    public void start() {
+      receiver.start();
+    }
+
+    @Override
+    public void end() {
+      receiver.end();
+    }
+
+    @Override
+    public void putTable(LogTable table) throws InterruptedException {
+      Level currentLevel = getLevel();
+      boolean decimatedCycle = cycle++ % DECIMATION_CYCLES == 0;
+      if (currentLevel == Level.FULL || (currentLevel == Level.DECIMATED && decimatedCycle)) {
+        receiver.putTable(table);
+        return;
+      }
+      if (tableKeysVersion != registryVersion) {
+        tableKeysVersion = registryVersion;
+        tableKeys.clear();
+      }
+
+      LogTable filtered = new LogTable(table.getTimestamp());
+      for (Map.Entry<String, LogValue> field : table.getAll(false).entrySet()) {
+        TableKey tableKey = tableKeys.get(field.getKey());
+        if (tableKey == null) {
+          String key = field.getKey().substring(1); // Remove the leading slash
+          tableKey = new TableKey(key, getLoggedKeyTier(key));
+          tableKeys.put(field.getKey(), tableKey);
+        }
+        if (isSent(tableKey.tier(), currentLevel, decimatedCycle)) {
+          filtered.put(tableKey.key(), field.getValue());
+        }
+      }
+      receiver.putTable(filtered);
+    }
+  }
+
+  /** Returns the tier of a key in a log table, where outputs are under an outputs table. */
+  private static Tier getLoggedKeyTier(String key) {
+    int separator = key.indexOf('/');
+    if (separator > 0 && key.substring(0, separator).endsWith("Outputs")) {
+      key = key.substring(separator + 1); // RealOutputs or ReplayOutputs
+    }
+    return getTier(key);
+  }
+}
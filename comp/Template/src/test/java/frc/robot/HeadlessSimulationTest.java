@@ -0,0 +1,39 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package frc.robot;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.pathplanner.lib.auto.AutoBuilder;
+import com.pathplanner.lib.path.PathPlannerPath;
+import edu.wpi.first.math.geometry.Pose2d;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class HeadlessSimulationTest {
+  @Test
+  void testFollowsExamplePath() throws Exception {
+    PathPlannerPath path = PathPlannerPath.fromPathFile("Example Path");
+    Pose2d startPose = path.getStartingHolonomicPose().orElseThrow();
+    List<Pose2d> pathPoses = path.getPathPoses();
+    Pose2d endPose = pathPoses.get(pathPoses.size() - 1);
+
+    HeadlessSimulation.Result result =
+        HeadlessSimulation.getInstance()
+            .run(
+                "Example Path",
+                () -> AutoBuilder.resetOdom(startPose).andThen(AutoBuilder.followPath(path)),
+                15.0);
+    assertTrue(result.finished(), result.toString());
+    assertEquals(
+        0.0,
+        result.finalPose().getTranslation().getDistance(endPose.getTranslation()),
+        0.5,
+        result.toString());
+  }
+}
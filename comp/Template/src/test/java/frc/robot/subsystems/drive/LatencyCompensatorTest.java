@@ -0,0 +1,61 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package frc.robot.subsystems.drive;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import org.junit.jupiter.api.Test;
+
+class LatencyCompensatorTest {
+  private static final double EPSILON = 1e-9;
+
+  @Test
+  void testLoopPeriodConvergesToMeasured() {
+    LatencyCompensator compensator = new LatencyCompensator(0.0);
+    assertEquals(0.02, compensator.getLoopPeriodSecs(), EPSILON);
+    for (int i = 0; i < 200; i++) {
+      compensator.updateLoop(i * 0.025);
+    }
+    assertEquals(0.025, compensator.getLoopPeriodSecs(), 1e-6);
+  }
+
+  @Test
+  void testYawRateAcrossWrap() {
+    LatencyCompensator compensator = new LatencyCompensator(0.0);
+    compensator.updateState(1.0, Math.PI - 0.05);
+    compensator.updateState(1.02, -Math.PI + 0.05);
+    assertEquals(5.0, compensator.getYawRateRadPerSec(), EPSILON);
+
+    // Older samples are ignored
+    compensator.updateState(1.01, 0.0);
+    assertEquals(5.0, compensator.getYawRateRadPerSec(), EPSILON);
+  }
+
+  @Test
+  void testLookahead() {
+    LatencyCompensator compensator = new LatencyCompensator(0.002);
+    assertEquals(0.002, compensator.getLookaheadSecs(1.0), EPSILON);
+    compensator.updateState(1.0, 0.0);
+    assertEquals(0.015, compensator.getStateAgeSecs(1.015), EPSILON);
+    assertEquals(0.017, compensator.getLookaheadSecs(1.015), EPSILON);
+  }
+
+  @Test
+  void testCompensateRotatesAgainstYawRate() {
+    LatencyCompensator compensator = new LatencyCompensator(0.0);
+    compensator.updateState(0.0, 0.0);
+    compensator.updateState(0.1, 0.1); // 1 rad/s counterclockwise
+
+    ChassisSpeeds speeds = new ChassisSpeeds(2.0, 0.0, 1.0);
+    compensator.compensate(speeds, 0.05, speeds);
+    assertEquals(2.0 * Math.cos(-0.05), speeds.vxMetersPerSecond, EPSILON);
+    assertEquals(2.0 * Math.sin(-0.05), speeds.vyMetersPerSecond, EPSILON);
+    assertEquals(1.0, speeds.omegaRadiansPerSecond, EPSILON);
+  }
+}
@@ -0,0 +1,170 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package frc.robot.subsystems.drive;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import java.lang.management.ManagementFactory;
+import org.junit.jupiter.api.Test;
+
+class OdometryIntegratorTest {
+  // Deliberately off-center so the kinematics pseudo-inverse is not trivially symmetric
+  private static final Translation2d[] TRANSLATIONS = {
+    new Translation2d(0.35, 0.28),
+    new Translation2d(0.35, -0.31),
+    new Translation2d(-0.25, 0.28),
+    new Translation2d(-0.25, -0.31)
+  };
+  private static final int SAMPLES = 12;
+
+  private final double[] timestamps = new double[SAMPLES];
+  private final double[][] drivePositions = new double[4][SAMPLES];
+  private final double[][] turnPositionsRad = new double[4][SAMPLES];
+  private final double[] gyroTimestamps = new double[SAMPLES];
+  private final double[] gyroYawsRad = new double[SAMPLES];
+  private final double[][] moduleTimestamps = new double[4][];
+
+  private double consumedYawRad = 0.0;
+  private double consumedTimestamp = Double.NaN;
+  private int consumedCount = 0;
+  private final OdometryIntegrator.SampleConsumer consumer =
+      (timestamp, yawRad, distancesMeters, moduleCos, moduleSin) -> {
+        consumedYawRad = yawRad;
+        consumedTimestamp = timestamp;
+        consumedCount++;
+      };
+
+  /** Fills one cycle of samples for a robot turning while it drives. */
+  private void fillCycle(int cycle) {
+    for (int i = 0; i < SAMPLES; i++) {
+      int sample = cycle * SAMPLES + i;
+      timestamps[i] = sample * 0.004;
+      gyroTimestamps[i] = timestamps[i];
+      gyroYawsRad[i] = sample * 0.01;
+      for (int module = 0; module < 4; module++) {
+        drivePositions[module][i] = sample * (0.01 + 0.002 * module);
+        turnPositionsRad[module][i] = 0.3 * module + sample * 0.005;
+      }
+    }
+  }
+
+  /** Integrates the filled cycle with the same timestamps for every module. */
+  private void integrate(
+      OdometryIntegrator integrator, double[] sampleTimestamps, int count, boolean gyroConnected) {
+    for (int module = 0; module < 4; module++) {
+      moduleTimestamps[module] = sampleTimestamps;
+    }
+    integrate(integrator, moduleTimestamps, count, gyroConnected);
+  }
+
+  /** Integrates the filled cycle, using the gyro if connected. */
+  private void integrate(
+      OdometryIntegrator integrator,
+      double[][] sampleTimestamps,
+      int count,
+      boolean gyroConnected) {
+    integrator.integrate(
+        sampleTimestamps,
+        count,
+        drivePositions,
+        turnPositionsRad,
+        gyroConnected,
+        gyroTimestamps,
+        gyroYawsRad,
+        consumer);
+  }
+
+  @Test
+  void testFallbackMatchesKinematics() {
+    SwerveDriveKinematics kinematics = new SwerveDriveKinematics(TRANSLATIONS);
+    OdometryIntegrator integrator = new OdometryIntegrator(TRANSLATIONS);
+    double expectedYaw = 0.0;
+    double[] lastDistances = new double[4];
+    for (int cycle = 0; cycle < 3; cycle++) {
+      fillCycle(cycle);
+      for (int i = 0; i < SAMPLES; i++) {
+        SwerveModulePosition[] deltas = new SwerveModulePosition[4];
+        for (int module = 0; module < 4; module++) {
+          deltas[module] =
+              new SwerveModulePosition(
+                  drivePositions[module][i] - lastDistances[module],
+                  new Rotation2d(turnPositionsRad[module][i]));
+          lastDistances[module] = drivePositions[module][i];
+        }
+        expectedYaw += kinematics.toTwist2d(deltas).dtheta;
+      }
+      integrate(integrator, timestamps, SAMPLES, false);
+    }
+
+    assertEquals(3 * SAMPLES, consumedCount);
+    assertEquals(expectedYaw, integrator.getYawRad(), 1e-9);
+    assertEquals(expectedYaw, consumedYawRad, 1e-9);
+  }
+
+  @Test
+  void testInterpolatesGyroAcrossCycles() {
+    OdometryIntegrator integrator = new OdometryIntegrator(TRANSLATIONS);
+    fillCycle(0);
+    integrate(integrator, timestamps, SAMPLES, true);
+    assertEquals(gyroYawsRad[SAMPLES - 1], integrator.getYawRad(), 1e-12);
+
+    // Module sample halfway between the last gyro sample of the previous cycle and the first
+    // gyro sample of this one
+    fillCycle(1);
+    double[] shiftedTimestamps = timestamps.clone();
+    shiftedTimestamps[0] -= 0.002;
+    integrate(integrator, shiftedTimestamps, 1, true);
+    assertEquals((SAMPLES - 0.5) * 0.01, integrator.getYawRad(), 1e-12);
+  }
+
+  @Test
+  void testCombinesModuleTimestamps() {
+    OdometryIntegrator integrator = new OdometryIntegrator(TRANSLATIONS);
+    fillCycle(0);
+    double[][] skewed = new double[4][SAMPLES];
+    for (int module = 0; module < 4; module++) {
+      for (int i = 0; i < SAMPLES; i++) {
+        skewed[module][i] = timestamps[i] + (module - 1.5) * 0.0002;
+      }
+    }
+    integrate(integrator, skewed, SAMPLES, true);
+    assertEquals(timestamps[SAMPLES - 1], consumedTimestamp, 1e-12);
+    assertEquals(timestamps[SAMPLES - 1], integrator.getLatestTimestamp(), 1e-12);
+    assertEquals(gyroYawsRad[SAMPLES - 1], integrator.getYawRad(), 1e-9);
+  }
+
+  @Test
+  void testSteadyStateDoesNotAllocate() {
+    com.sun.management.ThreadMXBean threadBean =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    assertTrue(threadBean.isThreadAllocatedMemorySupported());
+    OdometryIntegrator integrator = new OdometryIntegrator(TRANSLATIONS);
+    fillCycle(0);
+
+    // Warm up both yaw sources, then measure
+    for (int cycle = 0; cycle < 20_000; cycle++) {
+      integrate(integrator, timestamps, SAMPLES, cycle % 2 == 0);
+    }
+    long baselineStart = threadBean.getCurrentThreadAllocatedBytes();
+    long baseline = threadBean.getCurrentThreadAllocatedBytes() - baselineStart;
+    int cycles = 1_000;
+    long start = threadBean.getCurrentThreadAllocatedBytes();
+    for (int cycle = 0; cycle < cycles; cycle++) {
+      integrate(integrator, timestamps, SAMPLES, cycle % 2 == 0);
+    }
+    long allocated = threadBean.getCurrentThreadAllocatedBytes() - start - baseline;
+
+    assertTrue(
+        allocated < cycles * SAMPLES,
+        "Allocated " + allocated + " bytes over " + cycles * SAMPLES + " samples");
+  }
+}
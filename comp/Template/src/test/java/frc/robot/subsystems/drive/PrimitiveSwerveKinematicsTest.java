@@ -0,0 +1,127 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package frc.robot.subsystems.drive;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class PrimitiveSwerveKinematicsTest {
+  private static final double EPSILON = 1e-9;
+  private static final Translation2d[] TRANSLATIONS = {
+    new Translation2d(0.35, 0.28),
+    new Translation2d(0.35, -0.31),
+    new Translation2d(-0.25, 0.28),
+    new Translation2d(-0.25, -0.31)
+  };
+
+  private static SwerveModuleState[] newStates() {
+    SwerveModuleState[] states = new SwerveModuleState[TRANSLATIONS.length];
+    for (int i = 0; i < states.length; i++) {
+      states[i] = new SwerveModuleState();
+    }
+    return states;
+  }
+
+  private static void assertStatesEqual(SwerveModuleState[] expected, SwerveModuleState[] actual) {
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(expected[i].speedMetersPerSecond, actual[i].speedMetersPerSecond, EPSILON);
+      assertEquals(expected[i].angle.getRadians(), actual[i].angle.getRadians(), EPSILON);
+    }
+  }
+
+  private static void assertSpeedsEqual(ChassisSpeeds expected, ChassisSpeeds actual) {
+    assertEquals(expected.vxMetersPerSecond, actual.vxMetersPerSecond, EPSILON);
+    assertEquals(expected.vyMetersPerSecond, actual.vyMetersPerSecond, EPSILON);
+    assertEquals(expected.omegaRadiansPerSecond, actual.omegaRadiansPerSecond, EPSILON);
+  }
+
+  @Test
+  void testMatchesWpilibKinematics() {
+    SwerveDriveKinematics expected = new SwerveDriveKinematics(TRANSLATIONS);
+    PrimitiveSwerveKinematics actual = new PrimitiveSwerveKinematics(TRANSLATIONS);
+    SwerveModuleState[] states = newStates();
+    ChassisSpeeds discrete = new ChassisSpeeds();
+    ChassisSpeeds measured = new ChassisSpeeds();
+    double[] twist = new double[3];
+
+    Random random = new Random(6328);
+    for (int i = 0; i < 1000; i++) {
+      // Stop every so often to check that headings are held
+      ChassisSpeeds speeds =
+          i % 10 == 0
+              ? new ChassisSpeeds()
+              : new ChassisSpeeds(
+                  random.nextGaussian() * 3.0,
+                  random.nextGaussian() * 3.0,
+                  random.nextGaussian() * 6.0);
+
+      ChassisSpeeds expectedDiscrete = ChassisSpeeds.discretize(speeds, 0.02);
+      PrimitiveSwerveKinematics.discretize(speeds, 0.02, discrete, twist);
+      assertSpeedsEqual(expectedDiscrete, discrete);
+
+      SwerveModuleState[] expectedStates = expected.toSwerveModuleStates(expectedDiscrete);
+      actual.toSwerveModuleStates(discrete, states);
+      assertStatesEqual(expectedStates, states);
+
+      SwerveDriveKinematics.desaturateWheelSpeeds(expectedStates, 4.5);
+      PrimitiveSwerveKinematics.desaturateWheelSpeeds(states, 4.5);
+      assertStatesEqual(expectedStates, states);
+
+      actual.toChassisSpeeds(states, measured);
+      assertSpeedsEqual(expected.toChassisSpeeds(expectedStates), measured);
+    }
+  }
+
+  @Test
+  void testReusesUnchangedHeadings() {
+    PrimitiveSwerveKinematics kinematics = new PrimitiveSwerveKinematics(TRANSLATIONS);
+    SwerveModuleState[] states = newStates();
+    kinematics.toSwerveModuleStates(new ChassisSpeeds(1.0, 0.5, 0.0), states);
+    Rotation2d[] headings = new Rotation2d[states.length];
+    for (int i = 0; i < states.length; i++) {
+      headings[i] = states[i].angle;
+    }
+
+    // Same direction at another speed keeps the headings
+    kinematics.toSwerveModuleStates(new ChassisSpeeds(3.0, 1.5, 0.0), states);
+    for (int i = 0; i < states.length; i++) {
+      assertSame(headings[i], states[i].angle);
+    }
+
+    // A new direction replaces them
+    kinematics.toSwerveModuleStates(new ChassisSpeeds(1.0, -0.5, 0.0), states);
+    for (int i = 0; i < states.length; i++) {
+      assertNotSame(headings[i], states[i].angle);
+      assertEquals(Math.atan2(-0.5, 1.0), states[i].angle.getRadians(), EPSILON);
+    }
+  }
+
+  @Test
+  void testResetHeadings() {
+    PrimitiveSwerveKinematics kinematics = new PrimitiveSwerveKinematics(TRANSLATIONS);
+    Rotation2d[] headings = new Rotation2d[TRANSLATIONS.length];
+    for (int i = 0; i < headings.length; i++) {
+      headings[i] = TRANSLATIONS[i].getAngle();
+    }
+    kinematics.resetHeadings(headings);
+
+    SwerveModuleState[] states = newStates();
+    kinematics.toSwerveModuleStates(new ChassisSpeeds(), states);
+    for (int i = 0; i < states.length; i++) {
+      assertEquals(0.0, states[i].speedMetersPerSecond);
+      assertEquals(headings[i], states[i].angle);
+    }
+  }
+}
@@ -0,0 +1,178 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package frc.robot.subsystems.drive;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import frc.robot.subsystems.vision.VisionMeasurementBatch;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class PrimitiveSwervePoseEstimatorTest {
+  private static final double TOLERANCE = 1e-7;
+  private static final Translation2d[] TRANSLATIONS = {
+    new Translation2d(0.35, 0.28),
+    new Translation2d(0.35, -0.31),
+    new Translation2d(-0.25, 0.28),
+    new Translation2d(-0.25, -0.31)
+  };
+
+  private final SwerveModulePosition[] positions = new SwerveModulePosition[4];
+
+  private void assertPosesEqual(Pose2d expected, Pose2d actual, String message) {
+    assertEquals(expected.getX(), actual.getX(), TOLERANCE, message);
+    assertEquals(expected.getY(), actual.getY(), TOLERANCE, message);
+    assertEquals(
+        0.0,
+        MathUtil.angleModulus(
+            expected.getRotation().getRadians() - actual.getRotation().getRadians()),
+        TOLERANCE,
+        message);
+  }
+
+  /** Moves the modules along a curving path for the specified sample. */
+  private void updatePositions(int sample) {
+    for (int i = 0; i < 4; i++) {
+      double distance = (positions[i] == null ? 0.0 : positions[i].distanceMeters);
+      positions[i] =
+          new SwerveModulePosition(
+              distance + 0.01 + 0.003 * i * Math.cos(sample * 0.003),
+              new Rotation2d(0.5 * Math.sin(sample * 0.002 + i)));
+    }
+  }
+
+  @Test
+  void testMatchesWpilibEstimator() {
+    updatePositions(0);
+    Rotation2d initialGyro = new Rotation2d(0.3);
+    Pose2d initialPose = new Pose2d(1.0, 2.0, new Rotation2d(3.0));
+    SwerveDrivePoseEstimator expected =
+        new SwerveDrivePoseEstimator(
+            new SwerveDriveKinematics(TRANSLATIONS), initialGyro, positions, initialPose);
+    PrimitiveSwervePoseEstimator actual =
+        new PrimitiveSwervePoseEstimator(TRANSLATIONS, initialGyro, positions, initialPose);
+
+    Random random = new Random(6328);
+    double gyroRad = initialGyro.getRadians();
+    double timestamp = 0.0;
+    for (int sample = 1; sample < 5000; sample++) {
+      // Odometry at 250 Hz while turning
+      timestamp += 0.004;
+      gyroRad += 0.01 * Math.sin(sample * 0.01) + 0.002;
+      updatePositions(sample);
+      expected.updateWithTime(timestamp, new Rotation2d(gyroRad), positions);
+      actual.updateWithTime(timestamp, new Rotation2d(gyroRad), positions);
+
+      // Noisy vision measurements with varying latency, some older than the history
+      if (random.nextInt(5) == 0) {
+        double latency = random.nextDouble() * (random.nextInt(10) == 0 ? 2.0 : 0.3);
+        Pose2d estimate = expected.getEstimatedPosition();
+        Pose2d measurement =
+            new Pose2d(
+                estimate.getX() + random.nextGaussian() * 0.2,
+                estimate.getY() + random.nextGaussian() * 0.2,
+                estimate.getRotation().plus(new Rotation2d(random.nextGaussian() * 0.1)));
+        double stdDev = 0.3 + random.nextDouble();
+        var stdDevs = VecBuilder.fill(stdDev, stdDev, stdDev * 2.0);
+        expected.addVisionMeasurement(measurement, timestamp - latency, stdDevs);
+        actual.addVisionMeasurement(measurement, timestamp - latency, stdDevs);
+      }
+
+      // Reset partway through
+      if (sample == 2500) {
+        Pose2d pose = new Pose2d(-3.0, 4.0, new Rotation2d(-2.0));
+        expected.resetPosition(new Rotation2d(gyroRad), positions, pose);
+        actual.resetPosition(new Rotation2d(gyroRad), positions, pose);
+      }
+
+      String message = "Sample " + sample;
+      assertPosesEqual(expected.getEstimatedPosition(), actual.getEstimatedPosition(), message);
+      if (sample % 100 == 0) {
+        double sampleTime = timestamp - random.nextDouble() * 1.0;
+        assertPosesEqual(
+            expected.sampleAt(sampleTime).orElseThrow(),
+            actual.sampleAt(sampleTime).orElseThrow(),
+            message);
+      }
+    }
+  }
+
+  @Test
+  void testBatchMatchesSortedMeasurements() {
+    updatePositions(0);
+    PrimitiveSwervePoseEstimator expected =
+        new PrimitiveSwervePoseEstimator(TRANSLATIONS, Rotation2d.kZero, positions, Pose2d.kZero);
+    PrimitiveSwervePoseEstimator actual =
+        new PrimitiveSwervePoseEstimator(TRANSLATIONS, Rotation2d.kZero, positions, Pose2d.kZero);
+    VisionMeasurementBatch batch = new VisionMeasurementBatch();
+
+    Random random = new Random(254);
+    double timestamp = 0.0;
+    for (int cycle = 1; cycle < 200; cycle++) {
+      // Five odometry samples per loop
+      for (int sample = cycle * 5; sample < cycle * 5 + 5; sample++) {
+        timestamp += 0.004;
+        updatePositions(sample);
+        expected.updateWithTime(timestamp, new Rotation2d(sample * 0.001), positions);
+        actual.updateWithTime(timestamp, new Rotation2d(sample * 0.001), positions);
+      }
+
+      // Two cameras whose measurements interleave in time, one occasionally too old to use
+      batch.clear();
+      for (int camera = 0; camera < 2; camera++) {
+        double cameraLatency = 0.01 + random.nextDouble() * (cycle % 20 == 0 ? 3.0 : 0.05);
+        for (int i = 0; i < 2; i++) {
+          Pose2d measurement =
+              new Pose2d(
+                  random.nextGaussian(),
+                  random.nextGaussian(),
+                  new Rotation2d(random.nextDouble()));
+          batch.add(measurement, timestamp - cameraLatency + i * 0.005, 0.5 + camera, 1.0);
+        }
+      }
+
+      // Add the measurements one at a time in time order, then as a batch
+      Integer[] order = new Integer[batch.size()];
+      for (int i = 0; i < order.length; i++) {
+        order[i] = i;
+      }
+      Arrays.sort(order, Comparator.comparingDouble(batch::getTimestamp));
+      for (int i : order) {
+        expected.addVisionMeasurement(batch.getPose(i), batch.getTimestamp(i), batch.getStdDevs(i));
+      }
+      batch.sortByTimestamp();
+      actual.addVisionMeasurements(batch);
+
+      assertPosesEqual(
+          expected.getEstimatedPosition(), actual.getEstimatedPosition(), "Cycle " + cycle);
+      assertEquals(
+          expected.getDiscardedVisionUpdateCount(), actual.getDiscardedVisionUpdateCount());
+    }
+  }
+
+  @Test
+  void testIgnoresVisionBeforeOdometry() {
+    updatePositions(0);
+    PrimitiveSwervePoseEstimator estimator =
+        new PrimitiveSwervePoseEstimator(TRANSLATIONS, Rotation2d.kZero, positions, Pose2d.kZero);
+    estimator.addVisionMeasurement(new Pose2d(5.0, 5.0, Rotation2d.kZero), 0.0);
+
+    assertEquals(Pose2d.kZero, estimator.getEstimatedPosition());
+    assertTrue(estimator.sampleAt(0.0).isEmpty());
+  }
+}
@@ -0,0 +1,42 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class ControlDeduplicatorTest {
+  @Test
+  void testSkipsUnchangedRequests() {
+    ControlDeduplicator deduplicator = new ControlDeduplicator(0.01, 0.1);
+    long skippedBefore = ControlDeduplicator.getTotalSkipped();
+    assertTrue(deduplicator.shouldSend(0, 1.0, 0.0));
+    assertFalse(deduplicator.shouldSend(0, 1.005, 0.02));
+    assertTrue(deduplicator.shouldSend(0, 1.02, 0.04));
+    assertFalse(deduplicator.shouldSend(0, 1.02, 0.06));
+    assertEquals(2, ControlDeduplicator.getTotalSkipped() - skippedBefore);
+  }
+
+  @Test
+  void testSendsOnModeChange() {
+    ControlDeduplicator deduplicator = new ControlDeduplicator(0.01, 0.1);
+    assertTrue(deduplicator.shouldSend(0, 0.0, 0.0));
+    assertTrue(deduplicator.shouldSend(1, 0.0, 0.02));
+    assertFalse(deduplicator.shouldSend(1, 0.0, 0.04));
+  }
+
+  @Test
+  void testKeepAlive() {
+    ControlDeduplicator deduplicator = new ControlDeduplicator(0.01, 0.1);
+    assertTrue(deduplicator.shouldSend(0, 0.0, 0.0));
+    assertFalse(deduplicator.shouldSend(0, 0.0, 0.08));
+    assertTrue(deduplicator.shouldSend(0, 0.0, 0.1));
+    assertFalse(deduplicator.shouldSend(0, 0.0, 0.12));
+  }
+}
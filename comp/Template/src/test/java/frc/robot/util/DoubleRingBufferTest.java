@@ -0,0 +1,101 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class DoubleRingBufferTest {
+  @Test
+  void testWrapsAround() {
+    DoubleRingBuffer buffer = new DoubleRingBuffer(4);
+    double[] destination = new double[4];
+    double next = 0.0;
+    for (int cycle = 0; cycle < 5; cycle++) {
+      for (int i = 0; i < 3; i++) {
+        assertTrue(buffer.offer(next + i));
+      }
+      assertEquals(3, buffer.drainTo(destination));
+      for (int i = 0; i < 3; i++) {
+        assertEquals(next + i, destination[i]);
+      }
+      next += 3.0;
+    }
+    assertEquals(0, buffer.size());
+    assertEquals(0, buffer.getDroppedCount());
+  }
+
+  @Test
+  void testDropsWhenFull() {
+    DoubleRingBuffer buffer = new DoubleRingBuffer(3);
+    assertTrue(buffer.offer(1.0));
+    assertTrue(buffer.offer(2.0));
+    assertTrue(buffer.offer(3.0));
+    assertFalse(buffer.hasRemainingCapacity());
+    assertFalse(buffer.offer(4.0));
+    assertFalse(buffer.offer(5.0));
+    assertEquals(2, buffer.getDroppedCount());
+    assertEquals(3.0, buffer.getLastOffered());
+
+    // The oldest samples are kept and space is freed by draining
+    double[] destination = new double[3];
+    assertEquals(3, buffer.drainTo(destination));
+    assertArrayEquals(new double[] {1.0, 2.0, 3.0}, destination);
+    assertTrue(buffer.offer(6.0));
+    assertEquals(2, buffer.getDroppedCount());
+  }
+
+  @Test
+  void testSnapshotBoundsDrains() {
+    DoubleRingBuffer buffer = new DoubleRingBuffer(8);
+    double[] destination = new double[8];
+    buffer.offer(1.0);
+    buffer.offer(2.0);
+    buffer.offer(3.0);
+    buffer.snapshot();
+    buffer.offer(4.0);
+
+    // Limited by the count, then by the snapshot
+    assertEquals(2, buffer.drainTo(destination, 2));
+    assertEquals(1.0, destination[0]);
+    assertEquals(2.0, destination[1]);
+    assertEquals(1, buffer.drainTo(destination, 8));
+    assertEquals(3.0, destination[0]);
+    assertEquals(0, buffer.drainTo(destination, 8));
+    assertEquals(1, buffer.size());
+
+    buffer.snapshot();
+    assertEquals(1, buffer.drainTo(destination, 8));
+    assertEquals(4.0, destination[0]);
+  }
+
+  @Test
+  void testClearAfterSnapshot() {
+    DoubleRingBuffer buffer = new DoubleRingBuffer(8);
+    double[] destination = new double[8];
+    buffer.offer(1.0);
+    buffer.offer(2.0);
+    buffer.snapshot();
+    buffer.offer(3.0);
+
+    // Only the pinned samples are discarded
+    buffer.clear();
+    assertEquals(1, buffer.size());
+    assertEquals(0, buffer.drainTo(destination));
+    buffer.snapshot();
+    assertEquals(1, buffer.drainTo(destination));
+    assertEquals(3.0, destination[0]);
+
+    // Clearing twice does not move past the snapshot
+    buffer.offer(4.0);
+    buffer.clear();
+    buffer.clear();
+    assertEquals(1, buffer.size());
+  }
+}
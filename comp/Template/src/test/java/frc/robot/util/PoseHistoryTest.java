@@ -0,0 +1,97 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import org.junit.jupiter.api.Test;
+
+class PoseHistoryTest {
+  private static final double EPSILON = 1e-9;
+
+  @Test
+  void testEmpty() {
+    PoseHistory history = new PoseHistory(4);
+    assertTrue(history.getPoseAt(1.0).isEmpty());
+    assertTrue(history.getVelocityAt(1.0).isEmpty());
+    assertTrue(Double.isNaN(history.getNewestTimestamp()));
+  }
+
+  @Test
+  void testInterpolates() {
+    PoseHistory history = new PoseHistory(4);
+    history.addSample(1.0, 0.0, 0.0, 0.0, 1.0, 0.0, 0.0);
+    history.addSample(2.0, 2.0, 4.0, 1.0, 3.0, 2.0, 1.0);
+
+    Pose2d pose = history.getPoseAt(1.25).orElseThrow();
+    assertEquals(0.5, pose.getX(), EPSILON);
+    assertEquals(1.0, pose.getY(), EPSILON);
+    assertEquals(0.25, pose.getRotation().getRadians(), EPSILON);
+    ChassisSpeeds velocity = history.getVelocityAt(1.25).orElseThrow();
+    assertEquals(1.5, velocity.vxMetersPerSecond, EPSILON);
+    assertEquals(0.5, velocity.vyMetersPerSecond, EPSILON);
+    assertEquals(0.25, velocity.omegaRadiansPerSecond, EPSILON);
+  }
+
+  @Test
+  void testInterpolatesHeadingAcrossWrap() {
+    PoseHistory history = new PoseHistory(4);
+    history.addSample(0.0, 0.0, 0.0, Math.PI - 0.1, 0.0, 0.0, 0.0);
+    history.addSample(1.0, 0.0, 0.0, -Math.PI + 0.1, 0.0, 0.0, 0.0);
+
+    Pose2d pose = history.getPoseAt(0.5).orElseThrow();
+    assertEquals(Math.PI, Math.abs(pose.getRotation().getRadians()), EPSILON);
+  }
+
+  @Test
+  void testClampsOutsideRange() {
+    PoseHistory history = new PoseHistory(4);
+    history.addSample(1.0, 1.0, 0.0, 0.0, 0.0, 0.0, 0.0);
+    history.addSample(2.0, 2.0, 0.0, 0.0, 0.0, 0.0, 0.0);
+
+    assertEquals(1.0, history.getPoseAt(0.0).orElseThrow().getX(), EPSILON);
+    assertEquals(2.0, history.getPoseAt(5.0).orElseThrow().getX(), EPSILON);
+  }
+
+  @Test
+  void testOverwritesOldestWhenFull() {
+    PoseHistory history = new PoseHistory(3);
+    for (int i = 0; i < 10; i++) {
+      history.addSample(i, i, 0.0, 0.0, 0.0, 0.0, 0.0);
+    }
+
+    assertEquals(3, history.size());
+    assertEquals(7.0, history.getOldestTimestamp());
+    assertEquals(9.0, history.getNewestTimestamp());
+    assertEquals(7.0, history.getPoseAt(0.0).orElseThrow().getX(), EPSILON);
+    assertEquals(8.5, history.getPoseAt(8.5).orElseThrow().getX(), EPSILON);
+  }
+
+  @Test
+  void testOutOfOrderSamples() {
+    PoseHistory history = new PoseHistory(4);
+    history.addSample(1.0, 1.0, 0.0, 0.0, 0.0, 0.0, 0.0);
+    history.addSample(2.0, 2.0, 0.0, 0.0, 0.0, 0.0, 0.0);
+    history.addSample(1.5, 9.0, 0.0, 0.0, 0.0, 0.0, 0.0); // Ignored
+    history.addSample(2.0, 3.0, 0.0, 0.0, 0.0, 0.0, 0.0); // Replaces the newest
+
+    assertEquals(2, history.size());
+    assertEquals(2.0, history.getPoseAt(1.5).orElseThrow().getX(), EPSILON);
+    assertEquals(3.0, history.getPoseAt(2.0).orElseThrow().getX(), EPSILON);
+  }
+
+  @Test
+  void testClear() {
+    PoseHistory history = new PoseHistory(4);
+    history.addSample(1.0, 1.0, 0.0, 0.0, 0.0, 0.0, 0.0);
+    history.clear();
+    assertTrue(history.getPoseAt(1.0).isEmpty());
+  }
+}
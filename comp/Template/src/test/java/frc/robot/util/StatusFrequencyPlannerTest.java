@@ -0,0 +1,74 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import frc.robot.util.StatusFrequencyPlanner.Priority;
+import frc.robot.util.StatusFrequencyPlanner.Request;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class StatusFrequencyPlannerTest {
+  private static Request request(Priority priority, double minHz, double maxHz, int signalCount) {
+    return new Request(priority, minHz, maxHz, new BaseStatusSignal[signalCount]);
+  }
+
+  @Test
+  void testEverythingAtMaximumWithinBudget() {
+    List<Request> requests =
+        List.of(
+            request(Priority.ODOMETRY, 250.0, 250.0, 2),
+            request(Priority.FEEDBACK, 20.0, 50.0, 2),
+            request(Priority.TELEMETRY, 10.0, 50.0, 4));
+    double[] frequencies = StatusFrequencyPlanner.plan(requests, 1000.0);
+    assertArrayEquals(new double[] {250.0, 50.0, 50.0}, frequencies, 1e-9);
+  }
+
+  @Test
+  void testLowerPrioritiesSlowDownFirst() {
+    List<Request> requests =
+        List.of(
+            request(Priority.TELEMETRY, 10.0, 50.0, 4),
+            request(Priority.ODOMETRY, 250.0, 250.0, 2),
+            request(Priority.FEEDBACK, 20.0, 50.0, 2));
+    // Minimums use 580 frames per second, feedback fills up with 60 more and telemetry gets the
+    // last 80 of its 160
+    double[] frequencies = StatusFrequencyPlanner.plan(requests, 720.0);
+    assertArrayEquals(new double[] {30.0, 250.0, 50.0}, frequencies, 1e-9);
+    assertEquals(720.0, StatusFrequencyPlanner.getFramesPerSec(requests, frequencies), 1e-9);
+  }
+
+  @Test
+  void testSamePriorityShares() {
+    List<Request> requests =
+        List.of(
+            request(Priority.FEEDBACK, 20.0, 50.0, 1), request(Priority.FEEDBACK, 10.0, 100.0, 1));
+    double[] frequencies = StatusFrequencyPlanner.plan(requests, 90.0);
+    assertArrayEquals(new double[] {35.0, 55.0}, frequencies, 1e-9);
+  }
+
+  @Test
+  void testOverBudgetKeepsMinimums() {
+    List<Request> requests =
+        List.of(
+            request(Priority.ODOMETRY, 250.0, 250.0, 8),
+            request(Priority.TELEMETRY, 10.0, 50.0, 8));
+    double[] frequencies = StatusFrequencyPlanner.plan(requests, 1000.0);
+    assertArrayEquals(new double[] {250.0, 10.0}, frequencies, 1e-9);
+    assertTrue(StatusFrequencyPlanner.getFramesPerSec(requests, null) > 1000.0);
+  }
+
+  @Test
+  void testClampsToPhoenixRange() {
+    Request request = request(Priority.TELEMETRY, 1.0, 2000.0, 1);
+    assertEquals(StatusFrequencyPlanner.MIN_FREQUENCY, request.minHz);
+    assertEquals(StatusFrequencyPlanner.MAX_FREQUENCY, request.maxHz);
+  }
+}
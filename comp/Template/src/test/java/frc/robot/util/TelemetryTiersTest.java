@@ -0,0 +1,51 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import frc.robot.util.TelemetryTiers.Level;
+import frc.robot.util.TelemetryTiers.Tier;
+import org.junit.jupiter.api.Test;
+
+class TelemetryTiersTest {
+  @Test
+  void testLongestPrefixWins() {
+    TelemetryTiers.register(Tier.DEBUG, "TiersTest/Subsystem");
+    TelemetryTiers.register(Tier.CRITICAL, "TiersTest/Subsystem/Pose");
+
+    assertEquals(Tier.DEBUG, TelemetryTiers.getTier("TiersTest/Subsystem/States"));
+    assertEquals(Tier.CRITICAL, TelemetryTiers.getTier("TiersTest/Subsystem/Pose"));
+    assertEquals(Tier.STANDARD, TelemetryTiers.getTier("TiersTest/Other"));
+  }
+
+  @Test
+  void testTiersSentAtEachLevel() {
+    for (Tier tier : Tier.values()) {
+      assertTrue(TelemetryTiers.isSent(tier, Level.FULL, false));
+      assertTrue(TelemetryTiers.isSent(tier, Level.DECIMATED, true));
+    }
+    assertTrue(TelemetryTiers.isSent(Tier.CRITICAL, Level.DECIMATED, false));
+    assertFalse(TelemetryTiers.isSent(Tier.STANDARD, Level.DECIMATED, false));
+    assertFalse(TelemetryTiers.isSent(Tier.DEBUG, Level.DECIMATED, false));
+
+    assertTrue(TelemetryTiers.isSent(Tier.CRITICAL, Level.MATCH, false));
+    assertTrue(TelemetryTiers.isSent(Tier.STANDARD, Level.MATCH, true));
+    assertFalse(TelemetryTiers.isSent(Tier.STANDARD, Level.MATCH, false));
+    assertFalse(TelemetryTiers.isSent(Tier.DEBUG, Level.MATCH, true));
+  }
+
+  @Test
+  void testMatchModeOverridesLevel() {
+    TelemetryTiers.setLevel(Level.FULL);
+    TelemetryTiers.setMatchMode(true);
+    assertEquals(Level.MATCH, TelemetryTiers.getLevel());
+    TelemetryTiers.setMatchMode(false);
+    assertEquals(Level.FULL, TelemetryTiers.getLevel());
+  }
+}
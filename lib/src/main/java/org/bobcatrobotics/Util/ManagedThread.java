@@ -0,0 +1,160 @@
+package org.bobcatrobotics.Util;
+
+import edu.wpi.first.wpilibj.Threads;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Starts latency-critical background workers with a configurable real-time priority and records
+ * how late each worker actually runs compared to when it wanted to.
+ *
+ * <p>Priority 0 runs the worker as a normal thread. Priorities 1-99 request SCHED_FIFO real-time
+ * scheduling on the roboRIO, which preempts the main robot loop, NetworkTables and the garbage
+ * collector. Keep real-time workers short and always blocking on something.
+ */
+public class ManagedThread {
+    private static final List<ManagedThread> workers = new ArrayList<>();
+    private static final ThreadLocal<ManagedThread> current = new ThreadLocal<>();
+
+    private final Thread thread;
+    private final String name;
+    private final int priority;
+    private final long deadlineNanos;
+    private volatile boolean priorityApplied = false;
+
+    // Written by the worker, read by the main loop
+    private final AtomicLong wakeCount = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private final AtomicLong intervalMaxLatencyNanos = new AtomicLong();
+    private final AtomicLong deadlineMisses = new AtomicLong();
+
+    private ManagedThread(String name, int priority, double deadlineSecs, Runnable body) {
+        if (priority < 0 || priority > 99) {
+            throw new IllegalArgumentException("Priority must be between 0 and 99");
+        }
+        this.name = name;
+        this.priority = priority;
+        this.deadlineNanos = (long) (deadlineSecs * 1e9);
+        thread = new Thread(() -> {
+            current.set(this);
+            if (priority > 0) {
+                priorityApplied = Threads.setCurrentThreadPriority(true, priority);
+            }
+            body.run();
+        }, name);
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Starts a daemon worker thread.
+     *
+     * @param name the thread name, also used as the log key
+     * @param priority real-time priority from 1-99, or 0 for a normal thread
+     * @param deadlineSecs the scheduling latency above which a wake-up counts as a missed deadline
+     * @param body the work to run on the thread
+     * @return the started worker
+     */
+    public static ManagedThread start(
+            String name, int priority, double deadlineSecs, Runnable body) {
+        ManagedThread worker = new ManagedThread(name, priority, deadlineSecs, body);
+        synchronized (workers) {
+            workers.add(worker);
+        }
+        worker.thread.start();
+        return worker;
+    }
+
+    /**
+     * Returns the worker running on the calling thread, or null if the calling thread was not
+     * started by this class.
+     */
+    public static ManagedThread current() {
+        return current.get();
+    }
+
+    /**
+     * Records a wake-up that was meant to happen at the given time. Call from the worker right
+     * after it returns from sleeping or blocking.
+     *
+     * @param intendedWakeNanos the {@link System#nanoTime()} value the worker wanted to wake at
+     */
+    public void recordWake(long intendedWakeNanos) {
+        recordLatency(Math.max(0, System.nanoTime() - intendedWakeNanos));
+    }
+
+    /**
+     * Records the delay between an event the worker was waiting for and the worker running.
+     *
+     * @param latencyNanos the measured scheduling latency
+     */
+    public void recordLatency(long latencyNanos) {
+        wakeCount.incrementAndGet();
+        totalLatencyNanos.addAndGet(latencyNanos);
+        maxLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+        intervalMaxLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+        if (latencyNanos > deadlineNanos) {
+            deadlineMisses.incrementAndGet();
+        }
+    }
+
+    /** Returns the underlying thread. */
+    public Thread getThread() {
+        return thread;
+    }
+
+    /** Returns the requested real-time priority. */
+    public int getPriority() {
+        return priority;
+    }
+
+    /** Returns whether the requested real-time priority was accepted by the OS. */
+    public boolean isPriorityApplied() {
+        return priorityApplied;
+    }
+
+    /** Returns the number of recorded wake-ups. */
+    public long getWakeCount() {
+        return wakeCount.get();
+    }
+
+    /** Returns the mean scheduling latency in seconds. */
+    public double getMeanLatencySecs() {
+        long count = wakeCount.get();
+        return count > 0 ? totalLatencyNanos.get() / 1e9 / count : 0.0;
+    }
+
+    /** Returns the largest scheduling latency seen so far in seconds. */
+    public double getMaxLatencySecs() {
+        return maxLatencyNanos.get() / 1e9;
+    }
+
+    /** Returns the number of wake-ups later than the deadline. */
+    public long getDeadlineMisses() {
+        return deadlineMisses.get();
+    }
+
+    /** Logs the scheduling statistics of this worker. Call from the main robot loop. */
+    public void logStats() {
+        String key = "Threads/" + name;
+        Logger.recordOutput(key + "/Priority", priority);
+        Logger.recordOutput(key + "/PriorityApplied", priorityApplied);
+        Logger.recordOutput(key + "/Wakes", getWakeCount());
+        Logger.recordOutput(key + "/MeanLatencyMs", getMeanLatencySecs() * 1e3);
+        Logger.recordOutput(key + "/MaxLatencyMs", getMaxLatencySecs() * 1e3);
+        Logger.recordOutput(
+                key + "/RecentMaxLatencyMs", intervalMaxLatencyNanos.getAndSet(0) / 1e6);
+        Logger.recordOutput(key + "/DeadlineMisses", getDeadlineMisses());
+    }
+
+    /** Logs the scheduling statistics of every started worker. Call from the main robot loop. */
+    public static void logAll() {
+        synchronized (workers) {
+            for (ManagedThread worker : workers) {
+                worker.logStats();
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.bobcatrobotics.Util;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ManagedThreadTest {
+
+    @Test
+    void testRecordsLatencyAndDeadlineMisses() throws InterruptedException {
+        ManagedThread worker = ManagedThread.start("TestWorker", 0, 0.005, () -> {});
+        worker.getThread().join();
+
+        worker.recordLatency(1_000_000);
+        worker.recordLatency(3_000_000);
+        worker.recordLatency(8_000_000);
+
+        assertEquals(3, worker.getWakeCount());
+        assertEquals(0.004, worker.getMeanLatencySecs(), 1e-9);
+        assertEquals(0.008, worker.getMaxLatencySecs(), 1e-9);
+        assertEquals(1, worker.getDeadlineMisses());
+    }
+
+    @Test
+    void testRunsBodyOnNamedThread() throws InterruptedException {
+        String[] threadName = new String[1];
+        ManagedThread[] self = new ManagedThread[1];
+        ManagedThread worker = ManagedThread.start("NamedWorker", 0, 0.01, () -> {
+            threadName[0] = Thread.currentThread().getName();
+            self[0] = ManagedThread.current();
+        });
+        worker.getThread().join();
+
+        assertEquals("NamedWorker", threadName[0]);
+        assertSame(worker, self[0]);
+        assertNull(ManagedThread.current());
+        assertTrue(worker.getThread().isDaemon());
+        assertFalse(worker.isPriorityApplied());
+    }
+
+    @Test
+    void testRecordWakeNeverNegative() {
+        ManagedThread worker = ManagedThread.start("EarlyWorker", 0, 0.01, () -> {});
+        worker.recordWake(System.nanoTime() + 1_000_000_000L);
+
+        assertEquals(1, worker.getWakeCount());
+        assertEquals(0.0, worker.getMaxLatencySecs());
+    }
+
+    @Test
+    void testInvalidPriorityThrowsException() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> ManagedThread.start("BadWorker", 100, 0.01, () -> {})
+        );
+    }
+}